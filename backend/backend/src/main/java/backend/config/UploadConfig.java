@@ -0,0 +1,69 @@
+package backend.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Multipart settings for image uploads.
+// Parts up to spring.servlet.multipart.file-size-threshold stay in memory; larger
+// ones are spooled to a staging directory next to the upload directory. Being on
+// the same disk, a spooled part is then moved into place with a rename instead of
+// being copied a second time.
+@Configuration
+public class UploadConfig {
+
+    @Value("${app.upload.staging-dir:./uploads-staging}")
+    private String stagingDir;
+
+    @Value("${app.images.worker-threads:2}")
+    private int imageWorkerThreads;
+
+    @Value("${app.images.queue-capacity:200}")
+    private int imageQueueCapacity;
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties properties) throws IOException {
+        // The servlet container resolves a relative location against its own temp directory
+        Path staging = Paths.get(stagingDir).toAbsolutePath().normalize();
+        Files.createDirectories(staging);
+
+        MultipartConfigElement defaults = properties.createMultipartConfig();
+        return new MultipartConfigElement(
+                staging.toString(),
+                defaults.getMaxFileSize(),
+                defaults.getMaxRequestSize(),
+                defaults.getFileSizeThreshold());
+    }
+
+    // Small fixed pool for resizing images, so decoding large uploads can't starve request threads.
+    // When the queue is full the uploading request does the work itself.
+    @Bean
+    public ThreadPoolTaskExecutor imageDerivativeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageWorkerThreads);
+        executor.setMaxPoolSize(imageWorkerThreads);
+        executor.setQueueCapacity(imageQueueCapacity);
+        executor.setThreadNamePrefix("image-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    // Boot only creates its default @Async pool when no other Executor bean exists,
+    // so the image pool above would otherwise leave unqualified @Async methods on a
+    // new thread per call. This is that default pool, configured through
+    // spring.task.execution.*, under the names @Async looks for.
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
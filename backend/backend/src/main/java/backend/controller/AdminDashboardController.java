@@ -2,7 +2,13 @@ package backend.controller;
 
 import backend.model.*;
 import backend.repostry.*;
+import backend.service.FollowGraphIndex;
+import backend.service.PostCacheService;
+import backend.service.ProfileCacheService;
+import backend.service.SearchService;
+import backend.service.UploadCleanupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,6 +40,21 @@ public class AdminDashboardController {
     @Autowired
     private inventoryRepository inventoryRepository;
 
+    @Autowired
+    private UploadCleanupService uploadCleanupService;
+
+    @Autowired
+    private PostCacheService postCacheService;
+
+    @Autowired
+    private ProfileCacheService profileCacheService;
+
+    @Autowired
+    private FollowGraphIndex followGraphIndex;
+
+    @Autowired
+    private SearchService searchService;
+
     // Get dashboard statistics
     @GetMapping("/stats")
     public ResponseEntity<?> getDashboardStats() {
@@ -68,12 +89,49 @@ public class AdminDashboardController {
         return ResponseEntity.ok(stats);
     }
 
+    // Files and bytes reclaimed by the unused-upload cleanup since startup
+    @GetMapping("/upload-cleanup")
+    public ResponseEntity<?> getUploadCleanupStats() {
+        return ResponseEntity.ok(uploadCleanupService.getStats());
+    }
+
+    // Hits, misses and database loads of the single-post cache since startup
+    @GetMapping("/post-cache")
+    public ResponseEntity<?> getPostCacheStats() {
+        return ResponseEntity.ok(postCacheService.getStats());
+    }
+
+    // Hits and misses of the profile cache since startup
+    @GetMapping("/profile-cache")
+    public ResponseEntity<?> getProfileCacheStats() {
+        return ResponseEntity.ok(profileCacheService.getStats());
+    }
+
+    // Size of the in-memory follow graph, and whether it has finished loading
+    @GetMapping("/follow-graph")
+    public ResponseEntity<?> getFollowGraphStats() {
+        return ResponseEntity.ok(followGraphIndex.getStats());
+    }
+
+    // Documents in the search index, and the state of its last rebuild
+    @GetMapping("/search-index")
+    public ResponseEntity<?> getSearchIndexStats() {
+        return ResponseEntity.ok(searchService.getStats());
+    }
+
+    // Rebuild the search index from the database in the background
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<?> rebuildSearchIndex() {
+        if (!searchService.startRebuild()) {
+            return ResponseEntity.status(409).body(Map.of("message", "A rebuild is already running"));
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "Rebuild started"));
+    }
+
     // Get recent users
     @GetMapping("/recent-users")
     public ResponseEntity<?> getRecentUsers() {
-        List<userModel> recentUsers = userRepository.findAll().stream()
-                .limit(5)
-                .collect(Collectors.toList());
+        List<UserAccount> recentUsers = userRepository.findRecentAccounts(PageRequest.of(0, 5));
         
         return ResponseEntity.ok(recentUsers);
     }
@@ -2,6 +2,8 @@ package backend.controller;
 
 import backend.model.inventoryModel;
 import backend.repostry.inventoryRepository;
+import backend.exception.InvalidUploadException;
+import backend.service.UploadService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -9,9 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,8 +24,9 @@ public class AdminInventoryController {
 
     @Autowired
     private inventoryRepository inventoryRepository;
-    
-    private final String UPLOAD_DIR = "uploads/";
+
+    @Autowired
+    private UploadService uploadService;
 
     // Get all inventory items with pagination
     @GetMapping
@@ -104,19 +105,11 @@ public class AdminInventoryController {
     // Upload item image
     @PostMapping("/upload-image")
     public ResponseEntity<?> uploadItemImage(@RequestParam("file") MultipartFile file) {
-        String itemImage = file.getOriginalFilename();
-
         try {
-            // Create directory if it doesn't exist
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                uploadDir.mkdirs();
-            }
-
-            // Save the file using safe path concatenation
-            file.transferTo(Paths.get(UPLOAD_DIR, itemImage));
-
+            String itemImage = uploadService.storeImage(file, UploadService.INVENTORY).getFilename();
             return ResponseEntity.ok(Map.of("filename", itemImage));
+        } catch (InvalidUploadException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (IOException e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -143,11 +136,15 @@ public class AdminInventoryController {
         existingItem.setItemDetails(itemDetails.getItemDetails());
         
         // Only update image if provided
-        if (itemDetails.getItemImage() != null && !itemDetails.getItemImage().isEmpty()) {
+        String previousImage = null;
+        if (itemDetails.getItemImage() != null && !itemDetails.getItemImage().isEmpty()
+                && !itemDetails.getItemImage().equals(existingItem.getItemImage())) {
+            previousImage = existingItem.getItemImage();
             existingItem.setItemImage(itemDetails.getItemImage());
         }
         
         inventoryModel updatedItem = inventoryRepository.save(existingItem);
+        uploadService.release(UploadService.INVENTORY, previousImage);
         return ResponseEntity.ok(updatedItem);
     }
 
@@ -176,24 +173,20 @@ public class AdminInventoryController {
             existingItem.setItemDetails(itemDetails.getItemDetails());
             
             // Handle file upload if provided
+            String previousImage = null;
             if (file != null && !file.isEmpty()) {
-                String itemImage = file.getOriginalFilename();
-                
-                // Create directory if it doesn't exist
-                File uploadDir = new File(UPLOAD_DIR);
-                if (!uploadDir.exists()) {
-                    uploadDir.mkdirs();
-                }
-                
-                // Save the file
-                file.transferTo(Paths.get(UPLOAD_DIR, itemImage));
+                String itemImage = uploadService.storeImage(file, UploadService.INVENTORY).getFilename();
                 
                 // Update image name
+                previousImage = existingItem.getItemImage();
                 existingItem.setItemImage(itemImage);
             }
             
             inventoryModel updatedItem = inventoryRepository.save(existingItem);
+            uploadService.release(UploadService.INVENTORY, previousImage);
             return ResponseEntity.ok(updatedItem);
+        } catch (InvalidUploadException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -210,21 +203,9 @@ public class AdminInventoryController {
                     .body(Map.of("error", "Item with ID " + itemId + " not found"));
         }
         
-        // Delete associated image if exists
-        String itemImage = item.getItemImage();
-        if (itemImage != null && !itemImage.isEmpty()) {
-            File imageFile = new File(UPLOAD_DIR + itemImage);
-            if (imageFile.exists()) {
-                if (imageFile.delete()) {
-                    System.out.println("Image deleted successfully");
-                } else {
-                    System.out.println("Image deletion failed");
-                }
-            }
-        }
-        
-        // Delete item
+        // Delete item, then release its image
         inventoryRepository.delete(item);
+        uploadService.release(UploadService.INVENTORY, item.getItemImage());
         return ResponseEntity.ok(Map.of("message", "Item with ID " + itemId + " deleted successfully"));
     }
 
@@ -236,17 +217,9 @@ public class AdminInventoryController {
         for (String itemId : itemIds) {
             inventoryModel item = inventoryRepository.findByItemId(itemId);
             if (item != null) {
-                // Delete associated image if exists
-                String itemImage = item.getItemImage();
-                if (itemImage != null && !itemImage.isEmpty()) {
-                    File imageFile = new File(UPLOAD_DIR + itemImage);
-                    if (imageFile.exists()) {
-                        imageFile.delete();
-                    }
-                }
-                
-                // Delete item
+                // Delete item, then release its image
                 inventoryRepository.delete(item);
+                uploadService.release(UploadService.INVENTORY, item.getItemImage());
                 deletedCount++;
             }
         }
@@ -4,8 +4,9 @@ import backend.model.CommentModel;
 import backend.model.Notification;
 import backend.model.PostModel;
 import backend.repostry.CommentRepository;
-import backend.repostry.NotificationRepository;
 import backend.repostry.PostRepository;
+import backend.service.NotificationService;
+import backend.service.PostCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -26,7 +27,10 @@ public class CommentController {
     private PostRepository postRepository;
     
     @Autowired
-    private NotificationRepository notificationRepository;
+    private NotificationService notificationService;
+    
+    @Autowired
+    private PostCacheService postCacheService;
 
     // Get all comments for a post
     @GetMapping("/posts/{postId}/comments")
@@ -41,7 +45,7 @@ public class CommentController {
             @RequestBody CommentModel commentModel) {
         
         // Check if post exists
-        PostModel post = postRepository.findByPostId(postId);
+        PostModel post = postCacheService.find(postId);
         if (post == null) {
             return ResponseEntity.status(404).body("Post not found with ID: " + postId);
         }
@@ -54,9 +58,9 @@ public class CommentController {
         
         CommentModel savedComment = commentRepository.save(commentModel);
         
-        // Increment comment count on post
-        post.setCommentCount(post.getCommentCount() + 1);
-        postRepository.save(post);
+        // Increment comment count on post, in place so concurrent likes and comments aren't lost
+        postRepository.adjustCommentCount(postId, 1);
+        postCacheService.evict(postId);
         
         // Create notification for post owner (if commenter is not the owner)
         if (!post.getUserId().equals(commentModel.getUserId())) {
@@ -71,7 +75,7 @@ public class CommentController {
                 commentModel.getUserId(),
                 commentModel.getUsername()
             );
-            notificationRepository.save(notification);
+            notificationService.create(notification);
         }
         
         return ResponseEntity.ok(savedComment);
@@ -117,7 +121,7 @@ public class CommentController {
         }
         
         // Get the post
-        PostModel post = postRepository.findByPostId(comment.getPostId());
+        PostModel post = postCacheService.find(comment.getPostId());
         if (post == null) {
             return ResponseEntity.status(404).body("Post not found with ID: " + comment.getPostId());
         }
@@ -130,8 +134,8 @@ public class CommentController {
         commentRepository.delete(comment);
         
         // Decrement comment count on post
-        post.setCommentCount(Math.max(0, post.getCommentCount() - 1));
-        postRepository.save(post);
+        postRepository.adjustCommentCount(post.getPostId(), -1);
+        postCacheService.evict(post.getPostId());
         
         return ResponseEntity.ok("Comment deleted successfully");
     }
@@ -1,9 +1,5 @@
 package backend.controller;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,10 +23,14 @@ import org.springframework.web.multipart.MultipartFile;
 import backend.exception.userNotFoundException;
 import backend.model.CommunityModel;
 import backend.model.Notification;
+import backend.model.CommunityMemberSummary;
 import backend.model.userModel;
 import backend.repostry.CommunityRepository;
-import backend.repostry.NotificationRepository;
 import backend.repostry.userRepository;
+import backend.service.CommunityMembershipService;
+import backend.service.NotificationService;
+import backend.service.SearchService;
+import backend.service.UploadService;
 
 @RestController
 @CrossOrigin("http://localhost:3000")
@@ -43,7 +43,19 @@ public class CommunityController {
     private userRepository userRepository;
     
     @Autowired
-    private NotificationRepository notificationRepository;
+    private NotificationService notificationService;
+    
+    @Autowired
+    private CommunityMembershipService membershipService;
+    
+    @Autowired
+    private UploadService uploadService;
+    
+    @Autowired
+    private SearchService searchService;
+    
+    private static final int MAX_MEMBER_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_RESULTS = 100;
     
     // Create a new community
     @PostMapping("/communities")
@@ -74,6 +86,10 @@ public class CommunityController {
             );
             
             CommunityModel savedCommunity = communityRepository.save(community);
+            membershipService.addCreator(savedCommunity);
+            searchService.indexCommunity(savedCommunity);
+            savedCommunity.setJoinedByCurrentUser(true);
+            savedCommunity.setModeratedByCurrentUser(true);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCommunity);
         } catch (Exception e) {
@@ -94,13 +110,20 @@ public class CommunityController {
         }
     }
     
-    // Get a specific community by ID
+    // Get a specific community by ID, with the viewing user's membership when userId is given
     @GetMapping("/communities/{communityId}")
-    public ResponseEntity<?> getCommunity(@PathVariable String communityId) {
+    public ResponseEntity<?> getCommunity(
+            @PathVariable String communityId,
+            @RequestParam(required = false) String userId) {
         try {
             CommunityModel community = communityRepository.findByCommunityId(communityId)
                     .orElseThrow(() -> new Exception("Community not found with id: " + communityId));
             
+            if (userId != null) {
+                community.setJoinedByCurrentUser(membershipService.isMember(communityId, userId));
+                community.setModeratedByCurrentUser(membershipService.isModerator(communityId, userId));
+            }
+            
             return ResponseEntity.ok(community);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -119,7 +142,7 @@ public class CommunityController {
             
             // Check if user is a moderator
             String userId = updateData.get("userId").toString();
-            if (!community.isModerator(userId)) {
+            if (!membershipService.isModerator(communityId, userId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "You don't have permission to update this community"));
             }
@@ -140,6 +163,7 @@ public class CommunityController {
             }
             
             CommunityModel updatedCommunity = communityRepository.save(community);
+            searchService.indexCommunity(updatedCommunity);
             
             return ResponseEntity.ok(updatedCommunity);
         } catch (Exception e) {
@@ -163,7 +187,10 @@ public class CommunityController {
                         .body(Map.of("message", "Only the creator can delete this community"));
             }
             
+            membershipService.removeAll(communityId);
             communityRepository.delete(community);
+            searchService.remove(SearchService.COMMUNITY, communityId);
+            uploadService.release(UploadService.COMMUNITIES, community.getCoverImageUrl());
             
             return ResponseEntity.ok(Map.of("message", "Community deleted successfully"));
         } catch (Exception e) {
@@ -185,8 +212,12 @@ public class CommunityController {
             userModel user = userRepository.findById(userId)
                     .orElseThrow(() -> new userNotFoundException("User not found with id: " + userId));
             
-            community.addMember(userId.toString());
-            communityRepository.save(community);
+            if (!membershipService.join(communityId, userId)) {
+                return ResponseEntity.ok(Map.of(
+                        "message", "Already a member of the community",
+                        "community", community
+                ));
+            }
             
             // Create notification for the user who joined - using user's fullname
             Notification notification = new Notification(
@@ -197,8 +228,10 @@ public class CommunityController {
                 community.getCreatorId(),
                 user.getFullname() // Using the user variable to get the fullname
             );
-            notificationRepository.save(notification);
+            notificationService.create(notification);
             
+            community.setMemberCount(community.getMemberCount() + 1);
+            community.setJoinedByCurrentUser(true);
             return ResponseEntity.ok(Map.of(
                     "message", "Successfully joined the community",
                     "community", community
@@ -224,8 +257,10 @@ public class CommunityController {
                         .body(Map.of("message", "The creator cannot leave the community"));
             }
             
-            community.removeMember(userId.toString());
-            communityRepository.save(community);
+            if (membershipService.leave(communityId, userId)) {
+                community.setMemberCount(Math.max(0, community.getMemberCount() - 1));
+            }
+            community.setJoinedByCurrentUser(false);
             
             return ResponseEntity.ok(Map.of(
                     "message", "Successfully left the community",
@@ -253,18 +288,15 @@ public class CommunityController {
                         .body(Map.of("message", "Only the creator can add moderators"));
             }
             
-            // Check if new moderator is a member
-            if (!community.isMember(newModeratorId)) {
+            // Only members can become moderators
+            if (!membershipService.setModerator(communityId, Long.parseLong(newModeratorId), true)) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(Map.of("message", "User must be a member before becoming a moderator"));
             }
             
-            community.addModerator(newModeratorId);
-            communityRepository.save(community);
-            
             return ResponseEntity.ok(Map.of(
                     "message", "Moderator added successfully",
-                    "moderators", community.getModerators()
+                    "moderators", toIdStrings(membershipService.getModeratorIds(communityId))
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -288,12 +320,14 @@ public class CommunityController {
                         .body(Map.of("message", "Only the creator can remove moderators"));
             }
             
-            community.removeModerator(moderatorId);
-            communityRepository.save(community);
+            // Don't remove the creator as moderator
+            if (!moderatorId.equals(community.getCreatorId())) {
+                membershipService.setModerator(communityId, Long.parseLong(moderatorId), false);
+            }
             
             return ResponseEntity.ok(Map.of(
                     "message", "Moderator removed successfully",
-                    "moderators", community.getModerators()
+                    "moderators", toIdStrings(membershipService.getModeratorIds(communityId))
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -305,7 +339,7 @@ public class CommunityController {
     @GetMapping("/users/{userId}/communities")
     public ResponseEntity<?> getUserCommunities(@PathVariable Long userId) {
         try {
-            List<CommunityModel> communities = communityRepository.findByMembersContaining(userId.toString());
+            List<CommunityModel> communities = communityRepository.findByMemberUserId(userId);
             return ResponseEntity.ok(communities);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -317,7 +351,14 @@ public class CommunityController {
     @GetMapping("/communities/search")
     public ResponseEntity<?> searchCommunities(@RequestParam String keyword) {
         try {
-            List<CommunityModel> communities = communityRepository.findByNameContainingIgnoreCase(keyword);
+            // Ranked by the search index, then loaded in that order
+            List<String> communityIds = searchService.searchIds(keyword, SearchService.COMMUNITY, MAX_SEARCH_RESULTS);
+            Map<String, CommunityModel> found = communityRepository.findByCommunityIdIn(communityIds).stream()
+                    .collect(Collectors.toMap(CommunityModel::getCommunityId, community -> community));
+            List<CommunityModel> communities = communityIds.stream()
+                    .map(found::get)
+                    .filter(community -> community != null)
+                    .collect(Collectors.toList());
             return ResponseEntity.ok(communities);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -336,31 +377,19 @@ public class CommunityController {
                     .orElseThrow(() -> new Exception("Community not found with id: " + communityId));
             
             // Check if user is a moderator
-            if (!community.isModerator(userId)) {
+            if (!membershipService.isModerator(communityId, userId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Only moderators can update the cover image"));
             }
             
-            // Use the project root uploads directory
-            String uploadDir = "./uploads/communities";
-            Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-            
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            System.out.println("Upload directory path: " + uploadPath);
-            
-            // Generate a unique filename
-            String filename = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-            Path filePath = uploadPath.resolve(filename);
-            
             // Save the file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            String filename = uploadService.storeImage(file, UploadService.COMMUNITIES).getFilename();
             
-            // Update the community with the new cover image URL
+            // Update the community with the new cover image URL, releasing the old one
+            String previousImage = community.getCoverImageUrl();
             community.setCoverImageUrl(filename);
             communityRepository.save(community);
+            uploadService.release(UploadService.COMMUNITIES, previousImage);
             
             return ResponseEntity.ok(Map.of(
                     "message", "Cover image uploaded successfully",
@@ -373,36 +402,21 @@ public class CommunityController {
         }
     }
     
-    // Get community members
+    // Get community members, one page at a time
     @GetMapping("/communities/{communityId}/members")
-    public ResponseEntity<?> getCommunityMembers(@PathVariable String communityId) {
+    public ResponseEntity<?> getCommunityMembers(
+            @PathVariable String communityId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
         try {
             CommunityModel community = communityRepository.findByCommunityId(communityId)
                     .orElseThrow(() -> new Exception("Community not found with id: " + communityId));
             
-            List<String> memberIds = community.getMembers();
-            List<Map<String, Object>> members = memberIds.stream()
-                    .map(memberId -> {
-                        try {
-                            Long id = Long.parseLong(memberId);
-                            userModel user = userRepository.findById(id)
-                                    .orElse(null);
-                            
-                            if (user != null) {
-                                Map<String, Object> memberData = new HashMap<>();
-                                memberData.put("id", user.getId());
-                                memberData.put("fullname", user.getFullname());
-                                memberData.put("profileImageUrl", user.getProfileImageUrl());
-                                memberData.put("isModerator", community.isModerator(memberId));
-                                memberData.put("isCreator", community.getCreatorId().equals(memberId));
-                                return memberData;
-                            }
-                            return null;
-                        } catch (Exception e) {
-                            return null;
-                        }
-                    })
-                    .filter(member -> member != null)
+            int pageSize = Math.max(1, Math.min(size, MAX_MEMBER_PAGE_SIZE));
+            List<CommunityMemberSummary> memberPage = membershipService.getMembers(communityId, Math.max(0, page), pageSize);
+            
+            List<Map<String, Object>> members = memberPage.stream()
+                    .map(user -> toMemberData(community, user))
                     .collect(Collectors.toList());
             
             return ResponseEntity.ok(members);
@@ -411,4 +425,37 @@ public class CommunityController {
                     .body(Map.of("message", e.getMessage()));
         }
     }
+    
+    // Get all moderators of a community, in the same form as members
+    @GetMapping("/communities/{communityId}/moderators")
+    public ResponseEntity<?> getCommunityModerators(@PathVariable String communityId) {
+        try {
+            CommunityModel community = communityRepository.findByCommunityId(communityId)
+                    .orElseThrow(() -> new Exception("Community not found with id: " + communityId));
+            
+            List<Map<String, Object>> moderators = membershipService.getModerators(communityId).stream()
+                    .map(user -> toMemberData(community, user))
+                    .collect(Collectors.toList());
+            
+            return ResponseEntity.ok(moderators);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+    
+    private Map<String, Object> toMemberData(CommunityModel community, CommunityMemberSummary user) {
+        Map<String, Object> memberData = new HashMap<>();
+        memberData.put("id", user.getId());
+        memberData.put("fullname", user.getFullname());
+        memberData.put("profileImageUrl", user.getProfileImageUrl());
+        memberData.put("isModerator", user.isModerator());
+        memberData.put("isCreator", community.getCreatorId().equals(user.getId().toString()));
+        return memberData;
+    }
+    
+    // Moderator ids as strings, matching how user ids are passed around the frontend
+    private List<String> toIdStrings(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.toList());
+    }
 }
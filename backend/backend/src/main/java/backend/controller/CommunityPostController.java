@@ -1,12 +1,10 @@
 package backend.controller;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -25,10 +23,16 @@ import org.springframework.web.multipart.MultipartFile;
 import backend.exception.userNotFoundException;
 import backend.model.CommunityModel;
 import backend.model.CommunityPostModel;
+import backend.model.ContentLike;
 import backend.model.userModel;
 import backend.repostry.CommunityPostRepository;
 import backend.repostry.CommunityRepository;
 import backend.repostry.userRepository;
+import backend.service.CommunityMembershipService;
+import backend.service.LikeService;
+import backend.service.StoredImage;
+import backend.service.UploadService;
+import backend.service.UploadSessionService;
 
 @RestController
 @CrossOrigin("http://localhost:3000")
@@ -43,6 +47,18 @@ public class CommunityPostController {
     @Autowired
     private userRepository userRepository;
     
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private CommunityMembershipService membershipService;
+    
+    @Autowired
+    private UploadService uploadService;
+    
+    @Autowired
+    private UploadSessionService uploadSessionService;
+    
     // Create a new community post
     @PostMapping("/communities/{communityId}/posts")
     public ResponseEntity<?> createCommunityPost(
@@ -58,7 +74,7 @@ public class CommunityPostController {
             userModel author = userRepository.findById(authorId)
                     .orElseThrow(() -> new userNotFoundException("User not found with id: " + authorId));
             
-            if (!community.isMember(authorId.toString())) {
+            if (!membershipService.isMember(communityId, authorId.toString())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "You must be a member of the community to create posts"));
             }
@@ -77,6 +93,15 @@ public class CommunityPostController {
                     content
             );
             
+            // Image sent beforehand through an upload session
+            Object uploadId = postData.get("uploadId");
+            if (uploadId != null) {
+                StoredImage image = uploadSessionService.claim(uploadId.toString(), UploadService.COMMUNITY_POSTS);
+                post.setImageUrl(image.getFilename());
+                post.setImageWidth(image.getWidth());
+                post.setImageHeight(image.getHeight());
+            }
+            
             // Save the post
             CommunityPostModel savedPost = communityPostRepository.save(post);
             
@@ -93,7 +118,9 @@ public class CommunityPostController {
     
     // Get all posts in a community
     @GetMapping("/communities/{communityId}/posts")
-    public ResponseEntity<?> getCommunityPosts(@PathVariable String communityId) {
+    public ResponseEntity<?> getCommunityPosts(
+            @PathVariable String communityId,
+            @RequestParam(required = false) String userId) {
         try {
             // Check if community exists
             communityRepository.findByCommunityId(communityId)
@@ -101,6 +128,7 @@ public class CommunityPostController {
             
             // Get all posts in the community
             List<CommunityPostModel> posts = communityPostRepository.findByCommunityIdOrderByCreatedAtDesc(communityId);
+            markLikedPosts(posts, userId);
             
             return ResponseEntity.ok(posts);
         } catch (Exception e) {
@@ -111,10 +139,13 @@ public class CommunityPostController {
     
     // Get a specific post
     @GetMapping("/communities/posts/{postId}")
-    public ResponseEntity<?> getCommunityPost(@PathVariable String postId) {
+    public ResponseEntity<?> getCommunityPost(
+            @PathVariable String postId,
+            @RequestParam(required = false) String userId) {
         try {
             CommunityPostModel post = communityPostRepository.findByPostId(postId)
                     .orElseThrow(() -> new Exception("Post not found with id: " + postId));
+            markLikedPosts(List.of(post), userId);
             
             return ResponseEntity.ok(post);
         } catch (Exception e) {
@@ -137,7 +168,7 @@ public class CommunityPostController {
             CommunityModel community = communityRepository.findByCommunityId(post.getCommunityId())
                     .orElseThrow(() -> new Exception("Community not found"));
             
-            if (!post.getAuthorId().equals(userId) && !community.isModerator(userId)) {
+            if (!post.getAuthorId().equals(userId) && !membershipService.isModerator(community.getCommunityId(), userId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "You don't have permission to update this post"));
             }
@@ -173,13 +204,15 @@ public class CommunityPostController {
             CommunityModel community = communityRepository.findByCommunityId(post.getCommunityId())
                     .orElseThrow(() -> new Exception("Community not found"));
             
-            if (!post.getAuthorId().equals(userId) && !community.isModerator(userId)) {
+            if (!post.getAuthorId().equals(userId) && !membershipService.isModerator(community.getCommunityId(), userId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "You don't have permission to delete this post"));
             }
             
-            // Delete the post
+            // Delete the post and release its image
             communityPostRepository.delete(post);
+            likeService.removeAll(ContentLike.COMMUNITY_POST, post.getPostId());
+            uploadService.release(UploadService.COMMUNITY_POSTS, post.getImageUrl());
             
             // Decrement post count in community
             community.decrementPostCount();
@@ -198,15 +231,16 @@ public class CommunityPostController {
             @PathVariable String postId,
             @RequestParam String userId) {
         try {
-            CommunityPostModel post = communityPostRepository.findByPostId(postId)
-                    .orElseThrow(() -> new Exception("Post not found with id: " + postId));
+            if (!communityPostRepository.existsByPostId(postId)) {
+                throw new Exception("Post not found with id: " + postId);
+            }
             
-            post.addLike(userId);
-            communityPostRepository.save(post);
+            // Writes one (post, user) row and bumps the counter in place
+            likeService.like(ContentLike.COMMUNITY_POST, postId, userId);
             
             return ResponseEntity.ok(Map.of(
                     "message", "Post liked successfully",
-                    "likeCount", post.getLikeCount()
+                    "likeCount", currentLikeCount(postId)
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -220,15 +254,15 @@ public class CommunityPostController {
             @PathVariable String postId,
             @RequestParam String userId) {
         try {
-            CommunityPostModel post = communityPostRepository.findByPostId(postId)
-                    .orElseThrow(() -> new Exception("Post not found with id: " + postId));
+            if (!communityPostRepository.existsByPostId(postId)) {
+                throw new Exception("Post not found with id: " + postId);
+            }
             
-            post.removeLike(userId);
-            communityPostRepository.save(post);
+            likeService.unlike(ContentLike.COMMUNITY_POST, postId, userId);
             
             return ResponseEntity.ok(Map.of(
                     "message", "Post unliked successfully",
-                    "likeCount", post.getLikeCount()
+                    "likeCount", currentLikeCount(postId)
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -240,7 +274,8 @@ public class CommunityPostController {
     @PostMapping("/communities/posts/{postId}/image")
     public ResponseEntity<?> uploadPostImage(
             @PathVariable String postId,
-            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "file", required = false) MultipartFile file,
+            @RequestParam(required = false) String uploadId,
             @RequestParam String userId) {
         try {
             CommunityPostModel post = communityPostRepository.findByPostId(postId)
@@ -252,26 +287,25 @@ public class CommunityPostController {
                         .body(Map.of("message", "Only the author can upload images to this post"));
             }
             
-            // Use the project root uploads directory
-            String uploadDir = "./uploads/community-posts";
-            Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-            
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            // Save the file, or take one sent through an upload session
+            StoredImage image;
+            if (file != null && !file.isEmpty()) {
+                image = uploadService.storeImage(file, UploadService.COMMUNITY_POSTS);
+            } else if (uploadId != null && !uploadId.isEmpty()) {
+                image = uploadSessionService.claim(uploadId, UploadService.COMMUNITY_POSTS);
+            } else {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of("message", "A file or an uploadId is required"));
             }
+            String filename = image.getFilename();
             
-            System.out.println("Upload directory path for posts: " + uploadPath);
-            
-            // Generate a unique filename
-            String filename = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-            Path filePath = uploadPath.resolve(filename);
-            
-            // Save the file
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            
-            // Update the post with the new image URL
+            // Update the post with the new image URL, releasing the old one
+            String previousImage = post.getImageUrl();
             post.setImageUrl(filename);
+            post.setImageWidth(image.getWidth());
+            post.setImageHeight(image.getHeight());
             communityPostRepository.save(post);
+            uploadService.release(UploadService.COMMUNITY_POSTS, previousImage);
             
             return ResponseEntity.ok(Map.of(
                     "message", "Image uploaded successfully",
@@ -284,15 +318,37 @@ public class CommunityPostController {
         }
     }
     
-    // Get posts by a specific user in communities
+    // Get posts by a specific user in communities; viewerId is the user looking at them
     @GetMapping("/users/{userId}/community-posts")
-    public ResponseEntity<?> getUserCommunityPosts(@PathVariable String userId) {
+    public ResponseEntity<?> getUserCommunityPosts(
+            @PathVariable String userId,
+            @RequestParam(required = false) String viewerId) {
         try {
             List<CommunityPostModel> posts = communityPostRepository.findByAuthorId(userId);
+            markLikedPosts(posts, viewerId);
             return ResponseEntity.ok(posts);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", e.getMessage()));
         }
     }
+    
+    // Resolve "liked by me" for a whole list of posts with one query
+    private void markLikedPosts(List<CommunityPostModel> posts, String userId) {
+        if (userId == null || posts.isEmpty()) {
+            return;
+        }
+        List<String> postIds = posts.stream().map(CommunityPostModel::getPostId).collect(Collectors.toList());
+        Set<String> liked = likeService.likedTargetIds(ContentLike.COMMUNITY_POST, userId, postIds);
+        for (CommunityPostModel post : posts) {
+            post.setLikedByCurrentUser(liked.contains(post.getPostId()));
+        }
+    }
+    
+    // Stored counter plus likes still buffered in memory
+    private int currentLikeCount(String postId) {
+        Integer likeCount = communityPostRepository.findLikeCountByPostId(postId);
+        long pending = likeService.pendingDelta(ContentLike.COMMUNITY_POST, postId);
+        return (int) Math.max(0, (likeCount == null ? 0 : likeCount) + pending);
+    }
 }
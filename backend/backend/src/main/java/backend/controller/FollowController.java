@@ -1,11 +1,20 @@
 package backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import backend.model.userModel;
+import backend.model.UserProfile;
+import backend.model.UserSummary;
+import backend.repostry.FollowRepository;
 import backend.repostry.userRepository;
+import backend.service.FollowGraphIndex;
+import backend.service.FollowService;
+import backend.service.ProfileCacheService;
+import backend.service.SuggestionService;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,15 +27,31 @@ public class FollowController {
 
     @Autowired
     private userRepository userRepository;
+    
+    @Autowired
+    private FollowService followService;
+    
+    @Autowired
+    private FollowRepository followRepository;
+    
+    @Autowired
+    private ProfileCacheService profileCacheService;
+    
+    @Autowired
+    private SuggestionService suggestionService;
+    
+    @Autowired
+    private FollowGraphIndex followGraphIndex;
+    
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    private static final int MAX_FOLLOW_STATE_BATCH = 500;
 
     // Follow a user
     @PostMapping("/users/{userId}/follow/{targetUserId}")
     public ResponseEntity<?> followUser(@PathVariable Long userId, @PathVariable Long targetUserId) {
         // Check if both users exist
-        userModel currentUser = userRepository.findById(userId).orElse(null);
-        userModel targetUser = userRepository.findById(targetUserId).orElse(null);
-        
-        if (currentUser == null || targetUser == null) {
+        if (profileCacheService.find(userId) == null || profileCacheService.find(targetUserId) == null) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "User not found");
             return ResponseEntity.badRequest().body(response);
@@ -39,20 +64,17 @@ public class FollowController {
             return ResponseEntity.badRequest().body(response);
         }
         
-        // Add target user to current user's following list
-        currentUser.addFollowing(targetUserId.toString());
-        
-        // Add current user to target user's followers list
-        targetUser.addFollower(userId.toString());
-        
-        // Save both users
-        userRepository.save(currentUser);
-        userRepository.save(targetUser);
+        try {
+            if (followService.follow(userId, targetUserId)) {
+                suggestionService.onFollow(userId, targetUserId);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request already created the same relationship
+        }
         
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Successfully followed user");
-        response.put("followingCount", currentUser.getFollowingCount());
-        response.put("followerCount", targetUser.getFollowerCount());
+        putCounts(response, userId, targetUserId);
         
         return ResponseEntity.ok(response);
     }
@@ -61,107 +83,136 @@ public class FollowController {
     @DeleteMapping("/users/{userId}/unfollow/{targetUserId}")
     public ResponseEntity<?> unfollowUser(@PathVariable Long userId, @PathVariable Long targetUserId) {
         // Check if both users exist
-        userModel currentUser = userRepository.findById(userId).orElse(null);
-        userModel targetUser = userRepository.findById(targetUserId).orElse(null);
-        
-        if (currentUser == null || targetUser == null) {
+        if (profileCacheService.find(userId) == null || profileCacheService.find(targetUserId) == null) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "User not found");
             return ResponseEntity.badRequest().body(response);
         }
         
-        // Remove target user from current user's following list
-        currentUser.removeFollowing(targetUserId.toString());
-        
-        // Remove current user from target user's followers list
-        targetUser.removeFollower(userId.toString());
-        
-        // Save both users
-        userRepository.save(currentUser);
-        userRepository.save(targetUser);
+        if (followService.unfollow(userId, targetUserId)) {
+            suggestionService.onUnfollow(userId, targetUserId);
+        }
         
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Successfully unfollowed user");
-        response.put("followingCount", currentUser.getFollowingCount());
-        response.put("followerCount", targetUser.getFollowerCount());
+        putCounts(response, userId, targetUserId);
         
         return ResponseEntity.ok(response);
     }
     
-    // Get followers of a user
+    // Get followers of a user, one page at a time (pass the last id seen as "after")
     @GetMapping("/users/{userId}/followers")
-    public ResponseEntity<?> getFollowers(@PathVariable Long userId) {
-        userModel user = userRepository.findById(userId).orElse(null);
-        
-        if (user == null) {
+    public ResponseEntity<?> getFollowers(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(defaultValue = "50") int size) {
+        if (!userRepository.existsById(userId)) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "User not found");
             return ResponseEntity.badRequest().body(response);
         }
         
-        List<String> followerIds = user.getFollowers();
-        List<userModel> followers = followerIds.stream()
-            .<userModel>map(id -> userRepository.findById(Long.parseLong(id)).orElse(null))
-            .filter(u -> u != null)
-            .collect(Collectors.toList());
+        List<UserSummary> followers = followRepository.findFollowerSummaries(userId, after, pageOf(size));
         
-        // Convert to simplified user objects for response
-        List<Map<String, Object>> followersList = followers.stream().map(follower -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("id", follower.getId());
-            map.put("fullname", follower.getFullname());
-            map.put("profileImageUrl", follower.getProfileImageUrl());
-            return map;
-        }).collect(Collectors.toList());
-        
-        return ResponseEntity.ok(followersList);
+        return ResponseEntity.ok(toResponseList(followers));
     }
     
-    // Get users that a user is following
+    // Get users that a user is following, one page at a time (pass the last id seen as "after")
     @GetMapping("/users/{userId}/following")
-    public ResponseEntity<?> getFollowing(@PathVariable Long userId) {
-        userModel user = userRepository.findById(userId).orElse(null);
-        
-        if (user == null) {
+    public ResponseEntity<?> getFollowing(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") Long after,
+            @RequestParam(defaultValue = "50") int size) {
+        if (!userRepository.existsById(userId)) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "User not found");
             return ResponseEntity.badRequest().body(response);
         }
         
-        List<String> followingIds = user.getFollowing();
-        List<userModel> following = followingIds.stream()
-            .<userModel>map(id -> userRepository.findById(Long.parseLong(id)).orElse(null))
-            .filter(u -> u != null)
-            .collect(Collectors.toList());
+        List<UserSummary> following = followRepository.findFolloweeSummaries(userId, after, pageOf(size));
         
-        // Convert to simplified user objects for response
-        List<Map<String, Object>> followingList = following.stream().map(followedUser -> {
+        return ResponseEntity.ok(toResponseList(following));
+    }
+    
+    // "Followed by X, Y and 12 others you follow": the users viewerId follows who follow userId
+    @GetMapping("/users/{userId}/followed-by")
+    public ResponseEntity<?> getFollowedBy(
+            @PathVariable Long userId,
+            @RequestParam Long viewerId,
+            @RequestParam(defaultValue = "3") int limit) {
+        List<Long> sampleIds = followGraphIndex.findFolloweesFollowing(
+                viewerId, userId, Math.max(0, Math.min(limit, MAX_PAGE_SIZE)));
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", followGraphIndex.countFolloweesFollowing(viewerId, userId));
+        response.put("users", profileCacheService.findAll(sampleIds).stream().map(user -> {
             Map<String, Object> map = new HashMap<>();
-            map.put("id", followedUser.getId());
-            map.put("fullname", followedUser.getFullname());
-            map.put("profileImageUrl", followedUser.getProfileImageUrl());
+            map.put("id", user.getId());
+            map.put("fullname", user.getFullname());
+            map.put("profileImageUrl", user.getProfileImageUrl());
             return map;
-        }).collect(Collectors.toList());
+        }).collect(Collectors.toList()));
         
-        return ResponseEntity.ok(followingList);
+        return ResponseEntity.ok(response);
     }
     
     // Check if a user is following another user
     @GetMapping("/users/{userId}/isFollowing/{targetUserId}")
     public ResponseEntity<?> isFollowing(@PathVariable Long userId, @PathVariable Long targetUserId) {
-        userModel user = userRepository.findById(userId).orElse(null);
-        
-        if (user == null) {
+        if (!userRepository.existsById(userId)) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "User not found");
             return ResponseEntity.badRequest().body(response);
         }
         
-        boolean isFollowing = user.getFollowing().contains(targetUserId.toString());
+        boolean isFollowing = followService.isFollowing(userId, targetUserId);
         
         Map<String, Object> response = new HashMap<>();
         response.put("isFollowing", isFollowing);
         
         return ResponseEntity.ok(response);
     }
+    
+    // Check whether a user follows each of many users at once, e.g. ?targetIds=3,8,15
+    @GetMapping("/users/{userId}/isFollowing")
+    public ResponseEntity<?> isFollowingAll(@PathVariable Long userId, @RequestParam List<Long> targetIds) {
+        if (targetIds.size() > MAX_FOLLOW_STATE_BATCH) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "At most " + MAX_FOLLOW_STATE_BATCH + " users can be checked at once");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (!userRepository.existsById(userId)) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "User not found");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("isFollowing", followService.followingState(userId, targetIds));
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    // Counters after the change, from the profile cache that follow/unfollow keep up to date
+    private void putCounts(Map<String, Object> response, Long userId, Long targetUserId) {
+        UserProfile user = profileCacheService.find(userId);
+        UserProfile target = profileCacheService.find(targetUserId);
+        response.put("followingCount", user == null ? 0 : user.getFollowingCount());
+        response.put("followerCount", target == null ? 0 : target.getFollowerCount());
+    }
+    
+    private Pageable pageOf(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+    
+    // Convert to simplified user objects for response
+    private List<Map<String, Object>> toResponseList(List<UserSummary> users) {
+        return users.stream().map(user -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", user.getId());
+            map.put("fullname", user.getFullname());
+            map.put("profileImageUrl", user.getProfileImageUrl());
+            return map;
+        }).collect(Collectors.toList());
+    }
 }
@@ -1,9 +1,12 @@
 package backend.controller;
 
+import backend.model.ContentLike;
 import backend.model.LearningPlanModel;
 import backend.model.LearningResource;
 import backend.model.PlanMilestone;
 import backend.repostry.LearningPlanRepository;
+import backend.service.LikeService;
+import backend.service.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +22,12 @@ public class LearningPlanController {
 
     @Autowired
     private LearningPlanRepository learningPlanRepository;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private SearchService searchService;
 
     // Create a new learning plan
     @PostMapping("/learning-plans")
@@ -37,7 +46,9 @@ public class LearningPlanController {
             learningPlanModel.setUpdatedAt(LocalDateTime.now());
         }
         
-        return learningPlanRepository.save(learningPlanModel);
+        LearningPlanModel savedPlan = learningPlanRepository.save(learningPlanModel);
+        searchService.indexLearningPlan(savedPlan);
+        return savedPlan;
     }
     
     // Get all public learning plans
@@ -117,6 +128,7 @@ public class LearningPlanController {
         existingPlan.setUpdatedAt(LocalDateTime.now());
         
         LearningPlanModel savedPlan = learningPlanRepository.save(existingPlan);
+        searchService.indexLearningPlan(savedPlan);
         return ResponseEntity.ok(savedPlan);
     }
     
@@ -140,6 +152,7 @@ public class LearningPlanController {
         plan.setUpdatedAt(LocalDateTime.now());
         
         LearningPlanModel savedPlan = learningPlanRepository.save(plan);
+        searchService.indexLearningPlan(savedPlan);
         return ResponseEntity.ok(savedPlan);
     }
     
@@ -158,6 +171,7 @@ public class LearningPlanController {
         plan.setUpdatedAt(LocalDateTime.now());
         
         LearningPlanModel savedPlan = learningPlanRepository.save(plan);
+        searchService.indexLearningPlan(savedPlan);
         return ResponseEntity.ok(savedPlan);
     }
     
@@ -267,17 +281,41 @@ public class LearningPlanController {
         return ResponseEntity.status(400).body("Completed status not provided");
     }
     
-    // Like a learning plan
+    // Like a learning plan (counted once per user)
     @PostMapping("/learning-plans/{planId}/like")
-    public ResponseEntity<?> likeLearningPlan(@PathVariable String planId) {
+    public ResponseEntity<?> likeLearningPlan(
+            @PathVariable String planId,
+            @RequestParam String userId) {
         LearningPlanModel plan = learningPlanRepository.findByPlanId(planId);
         if (plan == null) {
             return ResponseEntity.status(404).body("Learning plan with ID " + planId + " not found");
         }
         
-        plan.setLikes(plan.getLikes() + 1);
-        learningPlanRepository.save(plan);
-        return ResponseEntity.ok(plan);
+        // The counter is updated in place, not by saving the whole plan
+        likeService.like(ContentLike.LEARNING_PLAN, planId, userId);
+        return ResponseEntity.ok(withCurrentLikes(plan));
+    }
+    
+    // Unlike a learning plan
+    @DeleteMapping("/learning-plans/{planId}/like")
+    public ResponseEntity<?> unlikeLearningPlan(
+            @PathVariable String planId,
+            @RequestParam String userId) {
+        LearningPlanModel plan = learningPlanRepository.findByPlanId(planId);
+        if (plan == null) {
+            return ResponseEntity.status(404).body("Learning plan with ID " + planId + " not found");
+        }
+        
+        likeService.unlike(ContentLike.LEARNING_PLAN, planId, userId);
+        return ResponseEntity.ok(withCurrentLikes(plan));
+    }
+    
+    // Reload the like counter after an in-place update and add likes still buffered in memory
+    private LearningPlanModel withCurrentLikes(LearningPlanModel plan) {
+        Integer likes = learningPlanRepository.findLikesByPlanId(plan.getPlanId());
+        long pending = likeService.pendingDelta(ContentLike.LEARNING_PLAN, plan.getPlanId());
+        plan.setLikes((int) Math.max(0, (likes == null ? 0 : likes) + pending));
+        return plan;
     }
     
     // Delete a learning plan
@@ -289,6 +327,8 @@ public class LearningPlanController {
         }
         
         learningPlanRepository.delete(plan);
+        likeService.removeAll(ContentLike.LEARNING_PLAN, planId);
+        searchService.remove(SearchService.LEARNING_PLAN, planId);
         return ResponseEntity.ok("Learning plan with ID " + planId + " deleted");
     }
 }
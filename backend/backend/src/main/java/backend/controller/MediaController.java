@@ -0,0 +1,59 @@
+package backend.controller;
+
+import backend.exception.InvalidUploadException;
+import backend.service.MediaDeliveryService;
+import backend.service.UploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@CrossOrigin("http://localhost:3000")
+public class MediaController {
+
+    @Autowired
+    private UploadService uploadService;
+
+    @Autowired
+    private MediaDeliveryService mediaDeliveryService;
+
+    // Get an uploaded image; pass w to get the smallest resized copy at least that wide
+    @GetMapping("/uploads/{category}/{filename}")
+    public void getImage(
+            @PathVariable String category,
+            @PathVariable String filename,
+            @RequestParam(defaultValue = "0") int w,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        if (!UploadService.CATEGORIES.contains(category)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        if (uploadService.isContentAddressed(filename)) {
+            String key = uploadService.blobKeyForWidth(filename, w);
+            // A resized copy may still be on its way; only cache the original for a width request briefly
+            mediaDeliveryService.serveBlob(key, w <= 0 || !key.equals(filename), request, response);
+            return;
+        }
+
+        Path file;
+        try {
+            file = uploadService.resolveForWidth(category, filename, w);
+        } catch (InvalidUploadException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Files stored before content addressing can be overwritten, so they are revalidated
+        mediaDeliveryService.serve(file, false, request, response);
+    }
+}
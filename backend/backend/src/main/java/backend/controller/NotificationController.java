@@ -1,9 +1,11 @@
 package backend.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,9 +15,11 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import backend.model.Notification;
 import backend.repostry.NotificationRepository;
+import backend.service.NotificationService;
 
 @RestController
 @RequestMapping("/notifications")
@@ -24,6 +28,9 @@ public class NotificationController {
 
     @Autowired
     private NotificationRepository notificationRepository;
+    
+    @Autowired
+    private NotificationService notificationService;
 
     // Get all notifications for a user
     @GetMapping("/{userId}")
@@ -36,59 +43,58 @@ public class NotificationController {
     @GetMapping("/{userId}/unread")
     public ResponseEntity<List<Notification>> getUnreadNotifications(@PathVariable String userId) {
         List<Notification> notifications = notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
+        // The full unread list is at hand, so correct any drift in the cached count
+        notificationService.refreshUnreadCount(userId, notifications.size());
         return new ResponseEntity<>(notifications, HttpStatus.OK);
     }
 
     // Get count of unread notifications for a user
     @GetMapping("/{userId}/unread/count")
     public ResponseEntity<Long> getUnreadCount(@PathVariable String userId) {
-        long count = notificationRepository.countUnreadByUserId(userId);
+        long count = notificationService.countUnread(userId);
         return new ResponseEntity<>(count, HttpStatus.OK);
     }
 
+    // Stream new notifications and unread count changes to the user (Server-Sent Events)
+    @GetMapping(value = "/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@PathVariable String userId) {
+        return notificationService.subscribe(userId);
+    }
+
     // Mark a notification as read
     @PutMapping("/{notificationId}/read")
     public ResponseEntity<Notification> markAsRead(@PathVariable Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found with id: " + notificationId));
         
-        notification.setRead(true);
-        Notification updatedNotification = notificationRepository.save(notification);
-        return new ResponseEntity<>(updatedNotification, HttpStatus.OK);
+        notificationService.markAsRead(notification);
+        return new ResponseEntity<>(notification, HttpStatus.OK);
     }
 
     // Mark all notifications as read for a user
     @PutMapping("/{userId}/read-all")
-    public ResponseEntity<String> markAllAsRead(@PathVariable String userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
-        
-        for (Notification notification : notifications) {
-            notification.setRead(true);
-            notificationRepository.save(notification);
-        }
-        
-        return new ResponseEntity<>("All notifications marked as read", HttpStatus.OK);
+    public ResponseEntity<Map<String, Object>> markAllAsRead(@PathVariable String userId) {
+        int updated = notificationService.markAllAsRead(userId);
+        return new ResponseEntity<>(Map.of(
+                "message", "All notifications marked as read",
+                "count", updated
+        ), HttpStatus.OK);
     }
 
     // Mark all notifications as viewed for a user
     @PutMapping("/{userId}/view")
-    public ResponseEntity<String> markAllAsViewed(@PathVariable String userId) {
-        List<Notification> notifications = notificationRepository.findByUserId(userId);
-        
-        for (Notification notification : notifications) {
-            if (!notification.isViewed()) {
-                notification.setViewed(true);
-                notificationRepository.save(notification);
-            }
-        }
-        
-        return new ResponseEntity<>("All notifications marked as viewed", HttpStatus.OK);
+    public ResponseEntity<Map<String, Object>> markAllAsViewed(@PathVariable String userId) {
+        int updated = notificationRepository.markAllAsViewed(userId);
+        return new ResponseEntity<>(Map.of(
+                "message", "All notifications marked as viewed",
+                "count", updated
+        ), HttpStatus.OK);
     }
 
     // Create a new notification
     @PostMapping
     public ResponseEntity<Notification> createNotification(@RequestBody Notification notification) {
-        Notification savedNotification = notificationRepository.save(notification);
+        Notification savedNotification = notificationService.create(notification);
         return new ResponseEntity<>(savedNotification, HttpStatus.CREATED);
     }
     
@@ -104,7 +110,7 @@ public class NotificationController {
             request.getTriggeredByUsername()
         );
         
-        Notification savedNotification = notificationRepository.save(notification);
+        Notification savedNotification = notificationService.create(notification);
         return new ResponseEntity<>(savedNotification, HttpStatus.CREATED);
     }
     
@@ -120,7 +126,7 @@ public class NotificationController {
             request.getTriggeredByUsername()
         );
         
-        Notification savedNotification = notificationRepository.save(notification);
+        Notification savedNotification = notificationService.create(notification);
         return new ResponseEntity<>(savedNotification, HttpStatus.CREATED);
     }
     
@@ -136,7 +142,7 @@ public class NotificationController {
             request.getTriggeredByUsername()
         );
         
-        Notification savedNotification = notificationRepository.save(notification);
+        Notification savedNotification = notificationService.create(notification);
         return new ResponseEntity<>(savedNotification, HttpStatus.CREATED);
     }
     
@@ -152,7 +158,7 @@ public class NotificationController {
             request.getTriggeredByUsername()
         );
         
-        Notification savedNotification = notificationRepository.save(notification);
+        Notification savedNotification = notificationService.create(notification);
         return new ResponseEntity<>(savedNotification, HttpStatus.CREATED);
     }
     
@@ -1,22 +1,35 @@
 package backend.controller;
 
+import backend.exception.InvalidUploadException;
 import backend.exception.PostNotFoundException;
+import backend.model.ContentLike;
 import backend.model.Notification;
 import backend.model.PostModel;
-import backend.repostry.NotificationRepository;
 import backend.repostry.PostRepository;
+import backend.repostry.userRepository;
+import backend.service.LikeService;
+import backend.service.NotificationService;
+import backend.service.PostCacheService;
+import backend.service.ProfileCacheService;
+import backend.service.SearchService;
+import backend.service.StoredImage;
+import backend.service.TimelineService;
+import backend.service.UploadService;
+import backend.service.UploadSessionService;
+import backend.util.FeedCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -27,13 +40,40 @@ public class PostController {
     private PostRepository postRepository;
     
     @Autowired
-    private NotificationRepository notificationRepository;
-
-    private final String UPLOAD_DIR = "uploads/posts/";
+    private NotificationService notificationService;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
+    @Autowired
+    private LikeService likeService;
+    
+    @Autowired
+    private UploadService uploadService;
+    
+    @Autowired
+    private UploadSessionService uploadSessionService;
+    
+    @Autowired
+    private PostCacheService postCacheService;
+    
+    @Autowired
+    private ProfileCacheService profileCacheService;
+    
+    @Autowired
+    private SearchService searchService;
+    
+    @Autowired
+    private userRepository userRepository;
+    
+    private static final int MAX_FEED_PAGE_SIZE = 50;
 
     // Create a new post
     @PostMapping("/posts")
-    public PostModel createPost(@RequestBody PostModel postModel) {
+    public PostModel createPost(@RequestBody PostModel postModel,
+                                @RequestParam(required = false) String uploadId) {
+        attachUpload(postModel, uploadId);
+        
         // Generate a unique postId if not provided
         if (postModel.getPostId() == null || postModel.getPostId().isEmpty()) {
             postModel.setPostId(UUID.randomUUID().toString());
@@ -44,12 +84,19 @@ public class PostController {
             postModel.setCreatedAt(LocalDateTime.now());
         }
         
-        return postRepository.save(postModel);
+        PostModel savedPost = postRepository.save(postModel);
+        timelineService.fanOut(savedPost);
+        countPost(savedPost, 1);
+        searchService.indexPost(savedPost);
+        return savedPost;
     }
     
     // Create a learning progress post
     @PostMapping("/posts/learning-progress")
-    public PostModel createLearningProgressPost(@RequestBody PostModel postModel) {
+    public PostModel createLearningProgressPost(@RequestBody PostModel postModel,
+                                                @RequestParam(required = false) String uploadId) {
+        attachUpload(postModel, uploadId);
+        
         // Set post type to learning_progress
         postModel.setPostType("learning_progress");
         
@@ -63,14 +110,19 @@ public class PostController {
             postModel.setCreatedAt(LocalDateTime.now());
         }
         
-        return postRepository.save(postModel);
+        PostModel savedPost = postRepository.save(postModel);
+        timelineService.fanOut(savedPost);
+        countPost(savedPost, 1);
+        searchService.indexPost(savedPost);
+        return savedPost;
     }
     
     // Create a learning progress post with file upload
     @PostMapping("/posts/learning-progress/upload")
     public ResponseEntity<?> createLearningProgressPostWithUpload(
             @RequestPart(value = "postDetails") String postDetails,
-            @RequestPart(value = "file", required = false) MultipartFile file
+            @RequestPart(value = "file", required = false) MultipartFile file,
+            @RequestParam(required = false) String uploadId
     ) {
         try {
             ObjectMapper mapper = new ObjectMapper();
@@ -94,24 +146,24 @@ public class PostController {
             
             // Handle file upload if provided
             if (file != null && !file.isEmpty()) {
-                String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-                
-                // Create directory if it doesn't exist
-                File uploadDir = new File(UPLOAD_DIR);
-                if (!uploadDir.exists()) {
-                    uploadDir.mkdirs();
-                }
-                
-                // Save the file
-                file.transferTo(Paths.get(UPLOAD_DIR, fileName));
+                StoredImage image = uploadService.storeImage(file, UploadService.POSTS);
                 
                 // Set the image URL
-                postModel.setImageUrl(fileName);
+                postModel.setImageUrl(image.getFilename());
+                postModel.setImageWidth(image.getWidth());
+                postModel.setImageHeight(image.getHeight());
+            } else {
+                attachUpload(postModel, uploadId);
             }
             
             PostModel savedPost = postRepository.save(postModel);
+            timelineService.fanOut(savedPost);
+            countPost(savedPost, 1);
+            searchService.indexPost(savedPost);
             return ResponseEntity.ok(savedPost);
             
+        } catch (InvalidUploadException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body("Unexpected error: " + e.getMessage());
@@ -121,24 +173,14 @@ public class PostController {
     // Upload post image
     @PostMapping("/posts/upload")
     public String uploadPostImage(@RequestParam("file") MultipartFile file) {
-        String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-
         try {
-            // Create directory if it doesn't exist
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                uploadDir.mkdirs(); // creates all missing parent directories
-            }
-
-            // Save the file using safe path concatenation
-            file.transferTo(Paths.get(UPLOAD_DIR, fileName));
-
+            return uploadService.storeImage(file, UploadService.POSTS).getFilename();
+        } catch (InvalidUploadException e) {
+            return "Error uploading file: " + e.getMessage();
         } catch (IOException e) {
             e.printStackTrace();
-            return "Error uploading file: " + fileName;
+            return "Error uploading file: " + file.getOriginalFilename();
         }
-
-        return fileName;
     }
     
     // Get all posts (sorted by creation date, newest first)
@@ -146,7 +188,68 @@ public class PostController {
     public List<PostModel> getAllPosts() {
         return postRepository.findAllByOrderByCreatedAtDesc();
     }
-    
+
+    // Get one page of the home feed (newest first), continuing from an opaque cursor
+    @GetMapping("/posts/feed")
+    public ResponseEntity<?> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        FeedCursor after;
+        try {
+            after = FeedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<PostModel> posts = after == null
+                ? postRepository.findAllByOrderByCreatedAtDescIdDesc(limit)
+                : postRepository.findFeedPageAfter(after.getCreatedAt(), after.getId(), limit);
+
+        return ResponseEntity.ok(feedPage(posts, pageSize));
+    }
+
+    // Get one page of a user's personalized home timeline
+    @GetMapping("/users/{userId}/timeline")
+    public ResponseEntity<?> getTimeline(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        FeedCursor after;
+        try {
+            after = FeedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_FEED_PAGE_SIZE));
+        List<PostModel> posts = timelineService.getTimelinePage(userId, after, pageSize + 1);
+
+        return ResponseEntity.ok(feedPage(posts, pageSize));
+    }
+
+    // Build a feed response from up to pageSize + 1 posts, newest first
+    private Map<String, Object> feedPage(List<PostModel> posts, int pageSize) {
+        boolean hasMore = posts.size() > pageSize;
+        if (hasMore) {
+            posts = posts.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            PostModel last = posts.get(posts.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("posts", posts);
+        response.put("nextCursor", nextCursor);
+        response.put("hasMore", hasMore);
+        return response;
+    }
+
     // Get posts by type
     @GetMapping("/posts/type/{postType}")
     public List<PostModel> getPostsByType(@PathVariable String postType) {
@@ -168,13 +271,17 @@ public class PostController {
     // Get post by ID
     @GetMapping("/posts/{id}")
     public PostModel getPostById(@PathVariable Long id) {
-        return postRepository.findById(id).orElseThrow(() -> new PostNotFoundException(id));
+        PostModel post = postCacheService.findById(id);
+        if (post == null) {
+            throw new PostNotFoundException(id);
+        }
+        return post;
     }
     
     // Get post by postId
     @GetMapping("/posts/post/{postId}")
     public ResponseEntity<?> getPostByPostId(@PathVariable String postId) {
-        PostModel post = postRepository.findByPostId(postId);
+        PostModel post = postCacheService.find(postId);
         if (post == null) {
             return ResponseEntity.status(404).body("Post with ID " + postId + " not found");
         }
@@ -187,21 +294,12 @@ public class PostController {
         return postRepository.findByUserId(userId);
     }
     
-    // Get post image
-    @GetMapping("/uploads/posts/{filename}")
-    public ResponseEntity<FileSystemResource> getPostImage(@PathVariable String filename) {
-        File file = new File(UPLOAD_DIR + filename);
-        if (!file.exists()) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(new FileSystemResource(file));
-    }
-    
     // Update post
     @PutMapping("/posts/{postId}")
     public ResponseEntity<?> updatePost(
             @RequestPart(value = "postDetails") String postDetails,
             @RequestPart(value = "file", required = false) MultipartFile file,
+            @RequestParam(required = false) String uploadId,
             @PathVariable String postId
     ) {
         try {
@@ -280,35 +378,35 @@ public class PostController {
             }
     
             if (file != null && !file.isEmpty()) {
-                String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-    
                 try {
-                    // Create directory if it doesn't exist
-                    File uploadDir = new File(UPLOAD_DIR);
-                    if (!uploadDir.exists()) {
-                        uploadDir.mkdirs();
-                    }
-                    
-                    // Save the file
-                    file.transferTo(Paths.get(UPLOAD_DIR, fileName));
+                    StoredImage image = uploadService.storeImage(file, UploadService.POSTS);
                     
                     // Delete old image if exists
-                    if (existingPost.getImageUrl() != null && !existingPost.getImageUrl().isEmpty()) {
-                        File oldImage = new File(UPLOAD_DIR + existingPost.getImageUrl());
-                        if (oldImage.exists()) {
-                            oldImage.delete();
-                        }
-                    }
+                    uploadService.release(UploadService.POSTS, existingPost.getImageUrl());
                     
                     // Update the image URL in the model
-                    existingPost.setImageUrl(fileName);
+                    existingPost.setImageUrl(image.getFilename());
+                    existingPost.setImageWidth(image.getWidth());
+                    existingPost.setImageHeight(image.getHeight());
+                } catch (InvalidUploadException e) {
+                    return ResponseEntity.status(400).body(e.getMessage());
                 } catch (IOException e) {
                     e.printStackTrace();
                     return ResponseEntity.status(500).body("Error saving upload file: " + e.getMessage());
                 }
+            } else if (uploadId != null && !uploadId.isEmpty()) {
+                try {
+                    String previousImage = existingPost.getImageUrl();
+                    attachUpload(existingPost, uploadId);
+                    uploadService.release(UploadService.POSTS, previousImage);
+                } catch (InvalidUploadException e) {
+                    return ResponseEntity.status(400).body(e.getMessage());
+                }
             }
             
             PostModel savedPost = postRepository.save(existingPost);
+            postCacheService.evict(postId);
+            searchService.indexPost(savedPost);
             return ResponseEntity.ok(savedPost);
             
         } catch (Exception e) {
@@ -328,11 +426,11 @@ public class PostController {
             return ResponseEntity.status(404).body("Post with ID " + postId + " not found");
         }
         
-        post.setLikes(post.getLikes() + 1);
-        postRepository.save(post);
+        // Liking twice is a no-op; the counter is updated in place, not by saving the post
+        boolean liked = likeService.like(ContentLike.POST, postId, likerId);
         
         // Create notification for post owner (if liker is not the owner)
-        if (!post.getUserId().equals(likerId)) {
+        if (liked && !post.getUserId().equals(likerId)) {
             Notification notification = new Notification(
                 post.getUserId(),
                 "like",
@@ -341,10 +439,35 @@ public class PostController {
                 likerId,
                 likerUsername
             );
-            notificationRepository.save(notification);
+            notificationService.create(notification);
         }
         
-        return ResponseEntity.ok(post);
+        return ResponseEntity.ok(withCurrentLikes(post));
+    }
+    
+    // Unlike a post
+    @DeleteMapping("/posts/{postId}/like")
+    public ResponseEntity<?> unlikePost(
+            @PathVariable String postId,
+            @RequestParam String likerId) {
+        PostModel post = postRepository.findByPostId(postId);
+        if (post == null) {
+            return ResponseEntity.status(404).body("Post with ID " + postId + " not found");
+        }
+        
+        likeService.unlike(ContentLike.POST, postId, likerId);
+        
+        return ResponseEntity.ok(withCurrentLikes(post));
+    }
+    
+    // Reload the like counter after an in-place update and add likes still buffered in memory.
+    // Done last so the changed value is never flushed back over the atomic update.
+    private PostModel withCurrentLikes(PostModel post) {
+        Integer likes = postRepository.findLikesByPostId(post.getPostId());
+        long pending = likeService.pendingDelta(ContentLike.POST, post.getPostId());
+        post.setLikes((int) Math.max(0, (likes == null ? 0 : likes) + pending));
+        postCacheService.updateLikes(post.getPostId(), post.getLikes());
+        return post;
     }
     
     // Delete post
@@ -356,14 +479,36 @@ public class PostController {
         }
         
         // Delete image if exists
-        if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
-            File imageFile = new File(UPLOAD_DIR + post.getImageUrl());
-            if (imageFile.exists()) {
-                imageFile.delete();
-            }
-        }
+        uploadService.release(UploadService.POSTS, post.getImageUrl());
         
+        timelineService.removePost(post);
         postRepository.delete(post);
+        likeService.removeAll(ContentLike.POST, postId);
+        postCacheService.evict(postId);
+        countPost(post, -1);
+        searchService.remove(SearchService.POST, postId);
         return ResponseEntity.ok("Post with ID " + postId + " and associated image deleted");
     }
+
+    // Keep the author's post counter, and their cached profile, in step
+    private void countPost(PostModel post, int delta) {
+        try {
+            Long authorId = Long.valueOf(post.getUserId());
+            userRepository.adjustPostCount(authorId, delta);
+            profileCacheService.adjustPostCount(authorId, delta);
+        } catch (NumberFormatException e) {
+            // Not a user id; nothing to count
+        }
+    }
+
+    // Use an image uploaded through an upload session (see UploadSessionController)
+    private void attachUpload(PostModel post, String uploadId) {
+        if (uploadId == null || uploadId.isEmpty()) {
+            return;
+        }
+        StoredImage image = uploadSessionService.claim(uploadId, UploadService.POSTS);
+        post.setImageUrl(image.getFilename());
+        post.setImageWidth(image.getWidth());
+        post.setImageHeight(image.getHeight());
+    }
 }
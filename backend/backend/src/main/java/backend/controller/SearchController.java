@@ -0,0 +1,43 @@
+package backend.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import backend.service.SearchService;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@CrossOrigin("http://localhost:3000")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+    
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final List<String> TYPES =
+            List.of(SearchService.POST, SearchService.LEARNING_PLAN, SearchService.COMMUNITY);
+    
+    // Search posts, public learning plans and communities, best matches first;
+    // type limits results to one of post, learning_plan or community
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (type != null && !TYPES.contains(type)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "type must be one of " + TYPES));
+        }
+        try {
+            return ResponseEntity.ok(searchService.search(q, type, Math.max(0, page),
+                    Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Search failed: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package backend.controller;
+
+import backend.exception.InvalidUploadException;
+import backend.exception.UploadOffsetMismatchException;
+import backend.model.UploadSession;
+import backend.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Resumable chunked uploads.
+// POST /upload-sessions {category, size, sha256?} starts one; each chunk is sent with
+// PUT /upload-sessions/{id}/chunks?offset=N, the raw bytes as the body and their SHA-256
+// in the X-Chunk-SHA256 header. GET /upload-sessions/{id} tells where to resume, and
+// POST /upload-sessions/{id}/commit stores the file. Posts then pass the uploadId.
+@RestController
+@CrossOrigin("http://localhost:3000")
+@RequestMapping("/upload-sessions")
+public class UploadSessionController {
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @PostMapping
+    public ResponseEntity<?> startSession(@RequestBody Map<String, Object> request) {
+        try {
+            Object category = request.get("category");
+            Object size = request.get("size");
+            Object sha256 = request.get("sha256");
+            if (category == null || size == null) {
+                return ResponseEntity.badRequest().body(Map.of("message", "category and size are required"));
+            }
+            UploadSession session = uploadSessionService.start(category.toString(),
+                    Long.parseLong(size.toString()), sha256 == null ? null : sha256.toString());
+            return ResponseEntity.status(HttpStatus.CREATED).body(describe(session));
+        } catch (InvalidUploadException | NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error starting upload: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> getSession(@PathVariable String uploadId) {
+        UploadSession session = uploadSessionService.find(uploadId);
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "Upload session not found: " + uploadId));
+        }
+        return ResponseEntity.ok(describe(session));
+    }
+
+    @PutMapping("/{uploadId}/chunks")
+    public ResponseEntity<?> appendChunk(
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+            HttpServletRequest request) {
+        try {
+            long next = uploadSessionService.appendChunk(uploadId, offset, sha256, request.getInputStream());
+            return ResponseEntity.ok(Map.of("uploadId", uploadId, "offset", next));
+        } catch (UploadOffsetMismatchException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage(), "offset", e.getExpectedOffset()));
+        } catch (InvalidUploadException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IOException e) {
+            // Usually the connection dropped; the client resumes from the session's offset
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error receiving chunk: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{uploadId}/commit")
+    public ResponseEntity<?> commit(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(describe(uploadSessionService.commit(uploadId)));
+        } catch (InvalidUploadException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error storing upload: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abort(@PathVariable String uploadId) {
+        try {
+            uploadSessionService.abort(uploadId);
+            return ResponseEntity.ok(Map.of("message", "Upload cancelled"));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Error cancelling upload: " + e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> describe(UploadSession session) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uploadId", session.getId());
+        body.put("category", session.getCategory());
+        body.put("status", session.getStatus());
+        body.put("size", session.getTotalBytes());
+        body.put("offset", session.getReceivedBytes());
+        body.put("chunkSize", uploadSessionService.getChunkSize());
+        body.put("expiresAt", session.getExpiresAt());
+        if (UploadSession.COMMITTED.equals(session.getStatus())) {
+            body.put("filename", session.getFilename());
+            body.put("width", session.getWidth());
+            body.put("height", session.getHeight());
+        }
+        return body;
+    }
+}
@@ -3,16 +3,20 @@ package backend.controller;
 import backend.exception.inventoryNotFoundException;
 import backend.model.inventoryModel;
 import backend.repostry.inventoryRepository;
+import backend.exception.InvalidUploadException;
+import backend.service.MediaDeliveryService;
+import backend.service.UploadService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Paths;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 @RestController
@@ -22,35 +26,27 @@ public class inventoryController {
     @Autowired
     private inventoryRepository inventoryRepository;
 
+    @Autowired
+    private MediaDeliveryService mediaDeliveryService;
+
+    @Autowired
+    private UploadService uploadService;
+
     // Save new inventory item
     @PostMapping("/inventory")
     public inventoryModel newinventoryModel(@RequestBody inventoryModel newinventoryModel) {
         return inventoryRepository.save(newinventoryModel);
     }
 
-    private final String UPLOAD_DIR = "uploads/";
-    
     // Upload item image
     @PostMapping("/inventory/itemImg")
     public String itemImage(@RequestParam("file") MultipartFile file) {
-        String itemImage = file.getOriginalFilename();
-
         try {
-            // Create directory if it doesn't exist
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                uploadDir.mkdirs(); // creates all missing parent directories
-            }
-
-            // Save the file using safe path concatenation
-            file.transferTo(Paths.get(UPLOAD_DIR, itemImage));
-
-        } catch (IOException e) {
+            return uploadService.storeImage(file, UploadService.INVENTORY).getFilename();
+        } catch (IOException | InvalidUploadException e) {
             e.printStackTrace();
-            return "Error uploading file: " + itemImage;
+            return "Error uploading file: " + file.getOriginalFilename();
         }
-
-        return itemImage;
     }
 
     @GetMapping("/inventory")
@@ -70,14 +66,26 @@ public class inventoryController {
         return ResponseEntity.ok(item);
     }
 
-    // UPLOAD_DIR is now defined at the class level
     @GetMapping ("/uploads/{filename}")
-    public ResponseEntity<FileSystemResource> getImage(@PathVariable String filename) {
-        File file =new File(UPLOAD_DIR+filename);
-        if(!file.exists()){
-            return ResponseEntity.notFound().build();
+    public void getImage(@PathVariable String filename,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        if (uploadService.isContentAddressed(filename)) {
+            mediaDeliveryService.serveBlob(filename, true, request, response);
+            return;
         }
-        return ResponseEntity.ok(new FileSystemResource(file));
+        Path file;
+        try {
+            file = uploadService.resolve(UploadService.INVENTORY, filename);
+        } catch (InvalidUploadException e) {
+            file = null;
+        }
+        if (file == null || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Images from before content addressing keep their original names and can be overwritten
+        mediaDeliveryService.serve(file, false, request, response);
     }
     @PutMapping("/inventory/{itemId}")
     public ResponseEntity<?> updateItem(
@@ -118,22 +126,17 @@ public class inventoryController {
             existingInventory.setItemQty(newInventory.getItemQty());
             existingInventory.setItemDetails(newInventory.getItemDetails());
     
+            String previousImage = null;
             if(file != null && !file.isEmpty()){
-                String itemImage = file.getOriginalFilename();
-    
                 try{
-                    // Create directory if it doesn't exist
-                    File uploadDir = new File(UPLOAD_DIR);
-                    if (!uploadDir.exists()) {
-                        uploadDir.mkdirs();
-                    }
-                    
-                    // Save the file using the same UPLOAD_DIR as other methods
-                    file.transferTo(Paths.get(UPLOAD_DIR, itemImage));
+                    String itemImage = uploadService.storeImage(file, UploadService.INVENTORY).getFilename();
                     
                     // Update the image name in the model
+                    previousImage = existingInventory.getItemImage();
                     existingInventory.setItemImage(itemImage);
                     System.out.println("Updated image: " + itemImage);
+                } catch (InvalidUploadException e) {
+                    return ResponseEntity.status(400).body(e.getMessage());
                 } catch (IOException e) {
                     e.printStackTrace();
                     return ResponseEntity.status(500).body("Error saving upload file: " + e.getMessage());
@@ -141,6 +144,7 @@ public class inventoryController {
             }
             
             inventoryModel savedItem = inventoryRepository.save(existingInventory);
+            uploadService.release(UploadService.INVENTORY, previousImage);
             System.out.println("Item successfully updated: " + savedItem.getItemId());
             return ResponseEntity.ok(savedItem);
             
@@ -160,22 +164,9 @@ public class inventoryController {
             throw new RuntimeException("Item with ID " + itemId + " not found");
         }
         
-        //img delete part
-        String itemImage = inventoryItem.getItemImage();
-        if(itemImage != null && !itemImage.isEmpty()){
-            // Use the same UPLOAD_DIR as other methods
-            File imageFile = new File(UPLOAD_DIR + itemImage);
-            if (imageFile.exists()) {
-                if (imageFile.delete()){
-                    System.out.println("Image deleted successfully");
-                }else{
-                    System.out.println("Image deletion failed");
-                }
-            }
-        }
-        
-        //Delete Item from the repo
+        //Delete Item from the repo, then release its image
         inventoryRepository.delete(inventoryItem);
+        uploadService.release(UploadService.INVENTORY, inventoryItem.getItemImage());
         return "Data with item ID " + itemId + " and associated image deleted";
     }
 }
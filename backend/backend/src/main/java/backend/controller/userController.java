@@ -1,10 +1,15 @@
 package backend.controller;
 
 import backend.exception.userNotFoundException;
+import backend.model.UserAccount;
+import backend.model.UserProfile;
 import backend.model.userModel;
 import backend.model.PostModel;
 import backend.repostry.userRepository;
 import backend.repostry.PostRepository;
+import backend.service.ProfileCacheService;
+import backend.service.SuggestionService;
+import backend.service.UploadService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,14 +18,9 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @CrossOrigin("http://localhost:3000")
@@ -31,11 +31,25 @@ public class userController {
     
     @Autowired
     private PostRepository postRepository;
+    
+    @Autowired
+    private UploadService uploadService;
+    
+    @Autowired
+    private ProfileCacheService profileCacheService;
+    
+    @Autowired
+    private SuggestionService suggestionService;
+    
+    private static final int MAX_PROFILE_BATCH = 200;
+    
+    private static final int MAX_SUGGESTIONS = 50;
 
     // Insert new user
     @PostMapping("/user")
-    public userModel newUserModel(@RequestBody userModel newUserModel) {
-        return userRepository.save(newUserModel);
+    public UserAccount newUserModel(@RequestBody userModel newUserModel) {
+        userModel savedUser = userRepository.save(newUserModel);
+        return userRepository.findAccountById(savedUser.getId()).orElseThrow();
     }
 
     // User login
@@ -85,11 +99,9 @@ public class userController {
     @GetMapping("/user/{id}")
     public ResponseEntity<?> getUserById(@PathVariable Long id) {
         try {
-            userModel user = userRepository.findById(id)
+            // Read through a projection, so the password is never loaded
+            UserAccount user = userRepository.findAccountById(id)
                     .orElseThrow(() -> new userNotFoundException("User not found with id: " + id));
-            
-            // Don't send password in the response
-            user.setPassword(null);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -124,9 +136,9 @@ public class userController {
             }
             
             userModel savedUser = userRepository.save(user);
-            savedUser.setPassword(null); // Don't return password
+            profileCacheService.updateProfile(savedUser);
             
-            return ResponseEntity.ok(savedUser);
+            return ResponseEntity.ok(userRepository.findAccountById(savedUser.getId()).orElseThrow());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("message", e.getMessage()));
@@ -140,23 +152,15 @@ public class userController {
             userModel user = userRepository.findById(id)
                     .orElseThrow(() -> new userNotFoundException("User not found with id: " + id));
             
-            // Create uploads directory if it doesn't exist
-            String uploadDir = "uploads/profiles";
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            // Generate unique filename
-            String filename = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-            Path filePath = uploadPath.resolve(filename);
-            
             // Save the file
-            Files.copy(file.getInputStream(), filePath);
+            String filename = uploadService.storeImage(file, UploadService.PROFILES).getFilename();
             
-            // Update user profile image URL
+            // Replace the profile image, releasing the old one
+            String previousImage = user.getProfileImageUrl();
             user.setProfileImageUrl(filename);
             userRepository.save(user);
+            profileCacheService.updateProfile(user);
+            uploadService.release(UploadService.PROFILES, previousImage);
             
             // Create full URL for the image
             String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
@@ -200,18 +204,10 @@ public class userController {
     @GetMapping("/user/{id}/profile")
     public ResponseEntity<?> getUserProfile(@PathVariable Long id) {
         try {
-            userModel user = userRepository.findById(id)
-                    .orElseThrow(() -> new userNotFoundException("User not found with id: " + id));
-            
-            // Create a public profile object with only necessary information
-            Map<String, Object> profile = new HashMap<>();
-            profile.put("id", user.getId());
-            profile.put("fullname", user.getFullname());
-            profile.put("bio", user.getBio());
-            profile.put("profileImageUrl", user.getProfileImageUrl());
-            profile.put("followerCount", user.getFollowerCount());
-            profile.put("followingCount", user.getFollowingCount());
-            profile.put("postCount", user.getPostCount());
+            UserProfile profile = profileCacheService.find(id);
+            if (profile == null) {
+                throw new userNotFoundException("User not found with id: " + id);
+            }
             
             return ResponseEntity.ok(profile);
         } catch (Exception e) {
@@ -220,33 +216,29 @@ public class userController {
         }
     }
     
+    // Get public profiles of several users at once (e.g. the authors on a feed page)
+    @GetMapping("/users/profiles")
+    public ResponseEntity<?> getUserProfiles(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_PROFILE_BATCH) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "At most " + MAX_PROFILE_BATCH + " ids per request"));
+        }
+        return ResponseEntity.ok(profileCacheService.findAll(ids));
+    }
+    
     // Get user suggestions (users not being followed)
     @GetMapping("/users/suggestions")
     public ResponseEntity<?> getUserSuggestions(
             @RequestParam Long userId,
             @RequestParam(defaultValue = "5") int limit) {
         try {
-            userModel currentUser = userRepository.findById(userId)
-                    .orElseThrow(() -> new userNotFoundException("User not found with id: " + userId));
-            
-            // Get all users
-            List<userModel> allUsers = userRepository.findAll();
-            
-            // Get the IDs of users that the current user is following
-            List<String> followingIds = currentUser.getFollowing();
+            if (!userRepository.existsById(userId)) {
+                throw new userNotFoundException("User not found with id: " + userId);
+            }
             
-            // Filter out users that are already being followed and the current user
-            List<Map<String, Object>> suggestions = allUsers.stream()
-                    .filter(user -> !followingIds.contains(user.getId().toString()) && !user.getId().equals(userId))
-                    .limit(limit)
-                    .map(user -> {
-                        Map<String, Object> userMap = new HashMap<>();
-                        userMap.put("id", user.getId());
-                        userMap.put("fullname", user.getFullname());
-                        userMap.put("profileImageUrl", user.getProfileImageUrl());
-                        return userMap;
-                    })
-                    .collect(Collectors.toList());
+            // Ranked by mutual follows, then popular users
+            List<Map<String, Object>> suggestions =
+                    suggestionService.getSuggestions(userId, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
             
             return ResponseEntity.ok(suggestions);
         } catch (Exception e) {
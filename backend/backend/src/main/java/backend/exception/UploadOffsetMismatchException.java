@@ -0,0 +1,16 @@
+package backend.exception;
+
+// A chunk did not start where the upload session expects the next one
+public class UploadOffsetMismatchException extends RuntimeException {
+
+    private final long expectedOffset;
+
+    public UploadOffsetMismatchException(long expectedOffset) {
+        super("Chunk must start at offset " + expectedOffset);
+        this.expectedOffset = expectedOffset;
+    }
+
+    public long getExpectedOffset() {
+        return expectedOffset;
+    }
+}
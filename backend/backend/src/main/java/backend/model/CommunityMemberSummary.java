@@ -0,0 +1,6 @@
+package backend.model;
+
+// Member list entry: the user's summary plus their role in the community
+public interface CommunityMemberSummary extends UserSummary {
+    boolean isModerator();
+}
@@ -0,0 +1,78 @@
+package backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+// One user's membership in a community, with their role
+@Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(name = "uk_membership_community_user", columnNames = {"community_id", "user_id"}),
+    indexes = @Index(name = "idx_membership_user_community", columnList = "user_id, community_id")
+)
+public class CommunityMembership {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String communityId;
+    private Long userId;
+    private boolean moderator;
+    private LocalDateTime joinedAt;
+    
+    public CommunityMembership() {
+        this.joinedAt = LocalDateTime.now();
+    }
+    
+    public CommunityMembership(String communityId, Long userId, boolean moderator) {
+        this.communityId = communityId;
+        this.userId = userId;
+        this.moderator = moderator;
+        this.joinedAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCommunityId() {
+        return communityId;
+    }
+
+    public void setCommunityId(String communityId) {
+        this.communityId = communityId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public boolean isModerator() {
+        return moderator;
+    }
+
+    public void setModerator(boolean moderator) {
+        this.moderator = moderator;
+    }
+
+    public LocalDateTime getJoinedAt() {
+        return joinedAt;
+    }
+
+    public void setJoinedAt(LocalDateTime joinedAt) {
+        this.joinedAt = joinedAt;
+    }
+}
@@ -1,16 +1,14 @@
 package backend.model;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Transient;
 
 @Entity
 public class CommunityModel {
@@ -30,15 +28,18 @@ public class CommunityModel {
     private Date createdAt;
     private Date updatedAt;
     
-    @ElementCollection
-    private List<String> members = new ArrayList<>();
-    
-    @ElementCollection
-    private List<String> moderators = new ArrayList<>();
-    
+    // Members and moderators live in CommunityMembership rows;
+    // CommunityMembershipService keeps memberCount in step with them
     private int memberCount = 0;
     private int postCount = 0;
     
+    // Filled in per request for the user viewing the community
+    @Transient
+    private boolean joinedByCurrentUser;
+    
+    @Transient
+    private boolean moderatedByCurrentUser;
+    
     @PrePersist
     protected void onCreate() {
         this.createdAt = new Date();
@@ -60,9 +61,7 @@ public class CommunityModel {
         this.description = description;
         this.creatorId = creatorId;
         this.creatorName = creatorName;
-        this.members.add(creatorId); // Creator is automatically a member
-        this.moderators.add(creatorId); // Creator is automatically a moderator
-        this.memberCount = 1;
+        this.memberCount = 1; // Creator is automatically a member
     }
     
     // Getters and Setters
@@ -138,23 +137,6 @@ public class CommunityModel {
         this.updatedAt = updatedAt;
     }
     
-    public List<String> getMembers() {
-        return members;
-    }
-    
-    public void setMembers(List<String> members) {
-        this.members = members;
-        this.memberCount = members.size();
-    }
-    
-    public List<String> getModerators() {
-        return moderators;
-    }
-    
-    public void setModerators(List<String> moderators) {
-        this.moderators = moderators;
-    }
-    
     public int getMemberCount() {
         return memberCount;
     }
@@ -171,49 +153,23 @@ public class CommunityModel {
         this.postCount = postCount;
     }
     
-    // Helper methods
-    public void addMember(String userId) {
-        if (!this.members.contains(userId)) {
-            this.members.add(userId);
-            this.memberCount = this.members.size();
-        }
+    public boolean isJoinedByCurrentUser() {
+        return joinedByCurrentUser;
     }
     
-    public void removeMember(String userId) {
-        // Don't remove the creator
-        if (!userId.equals(this.creatorId) && this.members.contains(userId)) {
-            this.members.remove(userId);
-            this.memberCount = this.members.size();
-            
-            // Also remove from moderators if applicable
-            if (this.moderators.contains(userId)) {
-                this.moderators.remove(userId);
-            }
-        }
+    public void setJoinedByCurrentUser(boolean joinedByCurrentUser) {
+        this.joinedByCurrentUser = joinedByCurrentUser;
     }
     
-    public void addModerator(String userId) {
-        // Only add as moderator if they are a member
-        if (this.members.contains(userId) && !this.moderators.contains(userId)) {
-            this.moderators.add(userId);
-        }
+    public boolean isModeratedByCurrentUser() {
+        return moderatedByCurrentUser;
     }
     
-    public void removeModerator(String userId) {
-        // Don't remove the creator as moderator
-        if (!userId.equals(this.creatorId) && this.moderators.contains(userId)) {
-            this.moderators.remove(userId);
-        }
-    }
-    
-    public boolean isMember(String userId) {
-        return this.members.contains(userId);
-    }
-    
-    public boolean isModerator(String userId) {
-        return this.moderators.contains(userId);
+    public void setModeratedByCurrentUser(boolean moderatedByCurrentUser) {
+        this.moderatedByCurrentUser = moderatedByCurrentUser;
     }
     
+    // Helper methods
     public void incrementPostCount() {
         this.postCount++;
     }
@@ -1,16 +1,14 @@
 package backend.model;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Transient;
 
 @Entity
 public class CommunityPostModel {
@@ -28,15 +26,20 @@ public class CommunityPostModel {
     private String content;
     
     private String imageUrl;
+    // Pixel size of the original image, so clients can reserve space before it loads
+    private Integer imageWidth;
+    private Integer imageHeight;
     private Date createdAt;
     private Date updatedAt;
     
-    @ElementCollection
-    private List<String> likes = new ArrayList<>();
-    
+    // Who liked the post is stored in ContentLike; this is the denormalized count
     private int likeCount = 0;
     private int commentCount = 0;
     
+    // Filled per request for the user viewing the post, not stored
+    @Transient
+    private boolean likedByCurrentUser;
+    
     @PrePersist
     protected void onCreate() {
         this.createdAt = new Date();
@@ -126,6 +129,22 @@ public class CommunityPostModel {
         this.imageUrl = imageUrl;
     }
     
+    public Integer getImageWidth() {
+        return imageWidth;
+    }
+    
+    public void setImageWidth(Integer imageWidth) {
+        this.imageWidth = imageWidth;
+    }
+    
+    public Integer getImageHeight() {
+        return imageHeight;
+    }
+    
+    public void setImageHeight(Integer imageHeight) {
+        this.imageHeight = imageHeight;
+    }
+    
     public Date getCreatedAt() {
         return createdAt;
     }
@@ -142,15 +161,6 @@ public class CommunityPostModel {
         this.updatedAt = updatedAt;
     }
     
-    public List<String> getLikes() {
-        return likes;
-    }
-    
-    public void setLikes(List<String> likes) {
-        this.likes = likes;
-        this.likeCount = likes.size();
-    }
-    
     public int getLikeCount() {
         return likeCount;
     }
@@ -167,25 +177,15 @@ public class CommunityPostModel {
         this.commentCount = commentCount;
     }
     
-    // Helper methods
-    public void addLike(String userId) {
-        if (!this.likes.contains(userId)) {
-            this.likes.add(userId);
-            this.likeCount = this.likes.size();
-        }
-    }
-    
-    public void removeLike(String userId) {
-        if (this.likes.contains(userId)) {
-            this.likes.remove(userId);
-            this.likeCount = this.likes.size();
-        }
+    public boolean isLikedByCurrentUser() {
+        return likedByCurrentUser;
     }
     
-    public boolean isLikedBy(String userId) {
-        return this.likes.contains(userId);
+    public void setLikedByCurrentUser(boolean likedByCurrentUser) {
+        this.likedByCurrentUser = likedByCurrentUser;
     }
     
+    // Helper methods
     public void incrementCommentCount() {
         this.commentCount++;
     }
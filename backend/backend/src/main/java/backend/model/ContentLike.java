@@ -0,0 +1,80 @@
+package backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+// One user's like on a post, learning plan or community post.
+// The unique key makes a second like by the same user a no-op.
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+    name = "uk_like_target_user", columnNames = {"target_type", "target_id", "user_id"}))
+public class ContentLike {
+    
+    public static final String POST = "post";
+    public static final String LEARNING_PLAN = "learning_plan";
+    public static final String COMMUNITY_POST = "community_post";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String targetType; // post, learning_plan, community_post
+    private String targetId; // postId, planId, community postId
+    private String userId;
+    private LocalDateTime createdAt;
+    
+    public ContentLike() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public ContentLike(String targetType, String targetId, String userId) {
+        this.targetType = targetType;
+        this.targetId = targetId;
+        this.userId = userId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTargetType() {
+        return targetType;
+    }
+
+    public void setTargetType(String targetType) {
+        this.targetType = targetType;
+    }
+
+    public String getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(String targetId) {
+        this.targetId = targetId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
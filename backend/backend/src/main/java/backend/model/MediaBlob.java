@@ -0,0 +1,93 @@
+package backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+
+// One stored upload, named by the SHA-256 of its bytes.
+// Identical uploads share the blob; refCount is how many posts, profiles,
+// communities and inventory items currently point at it. lastReferencedAt is
+// when a reference was last added or dropped; the cleanup job leaves blobs
+// touched more recently than its grace period alone.
+@Entity
+public class MediaBlob {
+    
+    @Id
+    @Column(length = 64)
+    private String hash;
+    private String extension;
+    private long sizeBytes;
+    private int refCount;
+    private Integer width;
+    private Integer height;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastReferencedAt;
+    
+    public MediaBlob() {
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public void setExtension(String extension) {
+        this.extension = extension;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getLastReferencedAt() {
+        return lastReferencedAt;
+    }
+
+    public void setLastReferencedAt(LocalDateTime lastReferencedAt) {
+        this.lastReferencedAt = lastReferencedAt;
+    }
+}
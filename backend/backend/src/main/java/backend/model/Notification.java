@@ -6,8 +6,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_notification_user_created_at", columnList = "user_id, created_at"),
+    @Index(name = "idx_notification_user_read", columnList = "user_id, is_read"),
+    @Index(name = "idx_notification_created_at", columnList = "created_at")
+})
 public class Notification {
     
     @Id
@@ -7,11 +7,19 @@ import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import jakarta.persistence.Index;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
 
 @Entity
+@Table(indexes = {
+    // Backs the keyset-paginated home feed ordered by (createdAt, id)
+    @Index(name = "idx_post_created_at_id", columnList = "created_at, id"),
+    // Backs pulling recent posts of popular authors into a timeline
+    @Index(name = "idx_post_user_created_at", columnList = "user_id, created_at, id")
+})
 public class PostModel {
     @Id
     @GeneratedValue
@@ -20,6 +28,9 @@ public class PostModel {
     private String title;
     private String content;
     private String imageUrl;
+    // Pixel size of the original image, so clients can reserve space before it loads
+    private Integer imageWidth;
+    private Integer imageHeight;
     private String userId;
     private String username;
     private LocalDateTime createdAt;
@@ -109,6 +120,22 @@ public class PostModel {
         this.imageUrl = imageUrl;
     }
 
+    public Integer getImageWidth() {
+        return imageWidth;
+    }
+
+    public void setImageWidth(Integer imageWidth) {
+        this.imageWidth = imageWidth;
+    }
+
+    public Integer getImageHeight() {
+        return imageHeight;
+    }
+
+    public void setImageHeight(Integer imageHeight) {
+        this.imageHeight = imageHeight;
+    }
+
     public String getUserId() {
         return userId;
     }
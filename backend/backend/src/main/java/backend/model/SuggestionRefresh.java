@@ -0,0 +1,34 @@
+package backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.LocalDateTime;
+
+// When a user's suggestion list was last rebuilt in full. Kept apart from the
+// UserSuggestion rows so that a rebuild that found no candidates is remembered too.
+@Entity
+public class SuggestionRefresh {
+    
+    @Id
+    private Long userId;
+    private LocalDateTime computedAt;
+    
+    public SuggestionRefresh() {
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+    }
+}
@@ -0,0 +1,75 @@
+package backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+// One post pushed onto a user's home timeline when it was created
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_timeline_owner_created", columnList = "owner_id, created_at, post_id"),
+    @Index(name = "idx_timeline_post", columnList = "post_id")
+})
+public class TimelineEntry {
+    @Id
+    @GeneratedValue
+    private Long id;
+    
+    private String ownerId; // user whose timeline this entry belongs to
+    private Long postId; // numeric PostModel id
+    private String authorId;
+    private LocalDateTime createdAt; // copied from the post so pages can be read from the index alone
+    
+    public TimelineEntry() {
+    }
+    
+    public TimelineEntry(String ownerId, Long postId, String authorId, LocalDateTime createdAt) {
+        this.ownerId = ownerId;
+        this.postId = postId;
+        this.authorId = authorId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public String getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(String authorId) {
+        this.authorId = authorId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
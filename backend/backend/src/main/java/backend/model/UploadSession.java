@@ -0,0 +1,130 @@
+package backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// A chunked upload in progress, or finished and waiting to be attached to a post.
+// Chunks are appended in order; receivedBytes is where the next one starts, so a
+// client that lost its connection asks for it and carries on from there.
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_upload_session_expires_at", columnList = "expires_at")
+})
+public class UploadSession {
+
+    public static final String OPEN = "open";
+    public static final String COMMITTED = "committed";
+
+    @Id
+    @Column(length = 36)
+    private String id;
+    private String category;
+    private long totalBytes;
+    private long receivedBytes;
+    // SHA-256 of the whole file, if the client sent one when starting
+    @Column(length = 64)
+    private String sha256;
+    private String status;
+    // Set once committed
+    private String filename;
+    private Integer width;
+    private Integer height;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    public UploadSession() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public void setReceivedBytes(long receivedBytes) {
+        this.receivedBytes = receivedBytes;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,8 @@
+package backend.model;
+
+// Profile plus the contact details a user sees and edits on their own account.
+// Never includes the password.
+public interface UserAccount extends UserProfile {
+    String getEmail();
+    String getPhone();
+}
@@ -0,0 +1,14 @@
+package backend.model;
+
+// Public profile fields: what anyone viewing a user sees.
+// Filled by a projection query on the user row alone; follower and following
+// lists are only available page by page through the follow endpoints.
+public interface UserProfile {
+    Long getId();
+    String getFullname();
+    String getBio();
+    String getProfileImageUrl();
+    int getPostCount();
+    int getFollowerCount();
+    int getFollowingCount();
+}
@@ -0,0 +1,74 @@
+package backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+// A user suggested to another, with the number of people the user follows who follow the candidate.
+// Rows are written by SuggestionService with native queries.
+@Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(name = "uk_suggestion_user_candidate", columnNames = {"user_id", "candidate_id"}),
+    indexes = {
+        @Index(name = "idx_suggestion_user_mutual", columnList = "user_id, mutual_count"),
+        @Index(name = "idx_suggestion_candidate", columnList = "candidate_id")
+    }
+)
+public class UserSuggestion {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long userId;
+    private Long candidateId;
+    private int mutualCount;
+    private LocalDateTime computedAt; // when the row was written; see SuggestionRefresh for the list as a whole
+    
+    public UserSuggestion() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getCandidateId() {
+        return candidateId;
+    }
+
+    public void setCandidateId(Long candidateId) {
+        this.candidateId = candidateId;
+    }
+
+    public int getMutualCount() {
+        return mutualCount;
+    }
+
+    public void setMutualCount(int mutualCount) {
+        this.mutualCount = mutualCount;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+    }
+}
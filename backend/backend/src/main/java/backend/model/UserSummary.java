@@ -0,0 +1,9 @@
+package backend.model;
+
+// Minimal user fields for follower, following and member lists.
+// Filled directly by projection queries, so no userModel entity is loaded.
+public interface UserSummary {
+    Long getId();
+    String getFullname();
+    String getProfileImageUrl();
+}
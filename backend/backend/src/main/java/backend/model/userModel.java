@@ -1,15 +1,14 @@
 package backend.model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 @Entity
+@Table(indexes = @Index(name = "idx_user_follower_count", columnList = "follower_count"))
 public class userModel {
     @Id
     @GeneratedValue
@@ -25,14 +24,15 @@ public class userModel {
     
     private String profileImageUrl;
     
-    @ElementCollection
-    private List<String> followers = new ArrayList<>();
-    
-    @ElementCollection
-    private List<String> following = new ArrayList<>();
-    
+    // Counters are changed only by in-place UPDATE queries; saving a loaded user
+    // must not write back the values it was loaded with
+    @Column(updatable = false)
     private int postCount = 0;
+    
+    // Kept in step with the FollowEdge table by FollowService
+    @Column(updatable = false)
     private int followerCount = 0;
+    @Column(updatable = false)
     private int followingCount = 0;
 
     public userModel() {
@@ -104,48 +104,6 @@ public class userModel {
         this.profileImageUrl = profileImageUrl;
     }
     
-    public List<String> getFollowers() {
-        return followers;
-    }
-    
-    public void setFollowers(List<String> followers) {
-        this.followers = followers;
-        this.followerCount = followers.size();
-    }
-    
-    public List<String> getFollowing() {
-        return following;
-    }
-    
-    public void setFollowing(List<String> following) {
-        this.following = following;
-        this.followingCount = following.size();
-    }
-    
-    public void addFollower(String userId) {
-        if (!this.followers.contains(userId)) {
-            this.followers.add(userId);
-            this.followerCount = this.followers.size();
-        }
-    }
-    
-    public void removeFollower(String userId) {
-        this.followers.remove(userId);
-        this.followerCount = this.followers.size();
-    }
-    
-    public void addFollowing(String userId) {
-        if (!this.following.contains(userId)) {
-            this.following.add(userId);
-            this.followingCount = this.following.size();
-        }
-    }
-    
-    public void removeFollowing(String userId) {
-        this.following.remove(userId);
-        this.followingCount = this.following.size();
-    }
-    
     public int getPostCount() {
         return postCount;
     }
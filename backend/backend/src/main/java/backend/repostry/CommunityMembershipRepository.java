@@ -0,0 +1,64 @@
+package backend.repostry;
+
+import backend.model.CommunityMemberSummary;
+import backend.model.CommunityMembership;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CommunityMembershipRepository extends JpaRepository<CommunityMembership, Long> {
+    
+    boolean existsByCommunityIdAndUserId(String communityId, Long userId);
+    
+    boolean existsByCommunityIdAndUserIdAndModeratorTrue(String communityId, Long userId);
+    
+    @Query("SELECT m.userId FROM CommunityMembership m WHERE m.communityId = :communityId AND m.moderator = true")
+    List<Long> findModeratorIds(@Param("communityId") String communityId);
+    
+    // One page of members with their names and avatars, ordered by user id
+    @Query("SELECT u.id AS id, u.fullname AS fullname, u.profileImageUrl AS profileImageUrl, m.moderator AS moderator " +
+           "FROM CommunityMembership m JOIN userModel u ON u.id = m.userId " +
+           "WHERE m.communityId = :communityId ORDER BY m.userId")
+    List<CommunityMemberSummary> findMemberSummaries(@Param("communityId") String communityId, Pageable pageable);
+    
+    // Moderators only, with the same fields; a community has few of them, so not paged
+    @Query("SELECT u.id AS id, u.fullname AS fullname, u.profileImageUrl AS profileImageUrl, m.moderator AS moderator " +
+           "FROM CommunityMembership m JOIN userModel u ON u.id = m.userId " +
+           "WHERE m.communityId = :communityId AND m.moderator = true ORDER BY m.userId")
+    List<CommunityMemberSummary> findModeratorSummaries(@Param("communityId") String communityId);
+    
+    @Modifying
+    @Query("DELETE FROM CommunityMembership m WHERE m.communityId = :communityId AND m.userId = :userId")
+    int deleteMembership(@Param("communityId") String communityId, @Param("userId") Long userId);
+    
+    @Modifying
+    @Query("UPDATE CommunityMembership m SET m.moderator = :moderator " +
+           "WHERE m.communityId = :communityId AND m.userId = :userId")
+    int updateModerator(@Param("communityId") String communityId,
+                        @Param("userId") Long userId,
+                        @Param("moderator") boolean moderator);
+    
+    @Modifying
+    @Query("DELETE FROM CommunityMembership m WHERE m.communityId = :communityId")
+    int deleteByCommunityId(@Param("communityId") String communityId);
+    
+    @Query(value = "SELECT COUNT(*) FROM information_schema.tables " +
+                   "WHERE table_schema = DATABASE() AND table_name = 'community_model_members'", nativeQuery = true)
+    long countLegacyMemberTables();
+    
+    // Copy members and moderators from the old community_model_* collection tables (MySQL)
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO community_membership (community_id, user_id, moderator, joined_at) " +
+                   "SELECT c.community_id, CAST(m.members AS UNSIGNED), " +
+                   "EXISTS (SELECT 1 FROM community_model_moderators mo " +
+                   "WHERE mo.community_model_id = m.community_model_id AND mo.moderators = m.members), NOW() " +
+                   "FROM community_model_members m JOIN community_model c ON c.id = m.community_model_id",
+           nativeQuery = true)
+    int importLegacyMembers();
+}
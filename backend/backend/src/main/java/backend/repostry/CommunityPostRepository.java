@@ -4,7 +4,11 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import backend.model.CommunityPostModel;
 
@@ -15,4 +19,22 @@ public interface CommunityPostRepository extends JpaRepository<CommunityPostMode
     List<CommunityPostModel> findByAuthorId(String authorId);
     List<CommunityPostModel> findByCommunityIdOrderByCreatedAtDesc(String communityId);
     long countByCommunityId(String communityId);
+    boolean existsByPostId(String postId);
+    
+    @Query("SELECT p.likeCount FROM CommunityPostModel p WHERE p.postId = :postId")
+    Integer findLikeCountByPostId(@Param("postId") String postId);
+    
+    // Add to the like counter in place, never going below zero
+    @Transactional
+    @Modifying
+    @Query("UPDATE CommunityPostModel p SET p.likeCount = " +
+           "CASE WHEN p.likeCount + :delta < 0 THEN 0 ELSE p.likeCount + :delta END WHERE p.postId = :postId")
+    int adjustLikeCount(@Param("postId") String postId, @Param("delta") int delta);
+    
+    // Set the like counter to the number of recorded likes
+    @Transactional
+    @Modifying
+    @Query("UPDATE CommunityPostModel p SET p.likeCount = (SELECT CAST(COUNT(l) AS Integer) FROM ContentLike l " +
+           "WHERE l.targetType = 'community_post' AND l.targetId = p.postId) WHERE p.postId = :postId")
+    int recountLikeCount(@Param("postId") String postId);
 }
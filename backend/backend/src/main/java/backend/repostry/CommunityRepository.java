@@ -1,9 +1,13 @@
 package backend.repostry;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import backend.model.CommunityModel;
@@ -11,8 +15,20 @@ import backend.model.CommunityModel;
 @Repository
 public interface CommunityRepository extends JpaRepository<CommunityModel, Long> {
     Optional<CommunityModel> findByCommunityId(String communityId);
-    List<CommunityModel> findByMembersContaining(String userId);
-    List<CommunityModel> findByNameContainingIgnoreCase(String keyword);
+    
+    // Communities the user belongs to, found through the membership (user_id, community_id) index
+    @Query("SELECT c FROM CommunityModel c WHERE c.communityId IN " +
+           "(SELECT m.communityId FROM CommunityMembership m WHERE m.userId = :userId)")
+    List<CommunityModel> findByMemberUserId(@Param("userId") Long userId);
+    
+    List<CommunityModel> findByCommunityIdIn(Collection<String> communityIds);
     boolean existsByCommunityId(String communityId);
     boolean existsByName(String name);
+    
+    // Add to the member counter in place, never going below zero
+    @Modifying
+    @Query("UPDATE CommunityModel c SET c.memberCount = " +
+           "CASE WHEN c.memberCount + :delta < 0 THEN 0 ELSE c.memberCount + :delta END " +
+           "WHERE c.communityId = :communityId")
+    int adjustMemberCount(@Param("communityId") String communityId, @Param("delta") int delta);
 }
@@ -0,0 +1,54 @@
+package backend.repostry;
+
+import backend.model.ContentLike;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContentLikeRepository extends JpaRepository<ContentLike, Long> {
+    
+    boolean existsByTargetTypeAndTargetIdAndUserId(String targetType, String targetId, String userId);
+    
+    @Modifying
+    @Query("DELETE FROM ContentLike l WHERE l.targetType = :targetType AND l.targetId = :targetId AND l.userId = :userId")
+    int deleteLike(@Param("targetType") String targetType,
+                   @Param("targetId") String targetId,
+                   @Param("userId") String userId);
+    
+    // All likes of one target, once the target is deleted
+    @Modifying
+    @Query("DELETE FROM ContentLike l WHERE l.targetType = :targetType AND l.targetId = :targetId")
+    int deleteByTarget(@Param("targetType") String targetType, @Param("targetId") String targetId);
+    
+    // Which of the given targets the user has liked, for a whole page in one query
+    @Query("SELECT l.targetId FROM ContentLike l WHERE l.targetType = :targetType " +
+           "AND l.userId = :userId AND l.targetId IN :targetIds")
+    List<String> findLikedTargetIds(@Param("targetType") String targetType,
+                                    @Param("userId") String userId,
+                                    @Param("targetIds") Collection<String> targetIds);
+    
+    boolean existsByTargetType(String targetType);
+    
+    // "targetType:targetId" of every target liked since the given time
+    @Query("SELECT DISTINCT CONCAT(l.targetType, ':', l.targetId) FROM ContentLike l WHERE l.createdAt >= :since")
+    List<String> findTargetKeysLikedSince(@Param("since") LocalDateTime since);
+    
+    @Query(value = "SELECT COUNT(*) FROM information_schema.tables " +
+                   "WHERE table_schema = DATABASE() AND table_name = 'community_post_model_likes'", nativeQuery = true)
+    long countLegacyCommunityPostLikeTables();
+    
+    // Copy likes from the old community_post_model_likes collection table (MySQL)
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO content_like (target_type, target_id, user_id, created_at) " +
+                   "SELECT 'community_post', p.post_id, l.likes, NOW() " +
+                   "FROM community_post_model_likes l JOIN community_post_model p ON p.id = l.community_post_model_id",
+           nativeQuery = true)
+    int importLegacyCommunityPostLikes();
+}
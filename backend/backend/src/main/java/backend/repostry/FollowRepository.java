@@ -0,0 +1,75 @@
+package backend.repostry;
+
+import backend.model.FollowEdge;
+import backend.model.UserSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FollowRepository extends JpaRepository<FollowEdge, Long> {
+    
+    boolean existsByFollowerIdAndFolloweeId(Long followerId, Long followeeId);
+    
+    @Modifying
+    @Query("DELETE FROM FollowEdge f WHERE f.followerId = :followerId AND f.followeeId = :followeeId")
+    int deleteEdge(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+    
+    // Ids of the users following the given user
+    @Query("SELECT f.followerId FROM FollowEdge f WHERE f.followeeId = :userId")
+    List<Long> findFollowerIds(@Param("userId") Long userId);
+    
+    // Ids of the users the given user follows
+    @Query("SELECT f.followeeId FROM FollowEdge f WHERE f.followerId = :userId")
+    List<Long> findFolloweeIds(@Param("userId") Long userId);
+    
+    // One page of a user's followers ordered by id, starting after the given follower id
+    @Query("SELECT u.id AS id, u.fullname AS fullname, u.profileImageUrl AS profileImageUrl " +
+           "FROM FollowEdge f JOIN userModel u ON u.id = f.followerId " +
+           "WHERE f.followeeId = :userId AND f.followerId > :afterId ORDER BY f.followerId")
+    List<UserSummary> findFollowerSummaries(@Param("userId") Long userId,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+    
+    // One page of the users a user follows ordered by id, starting after the given followee id
+    @Query("SELECT u.id AS id, u.fullname AS fullname, u.profileImageUrl AS profileImageUrl " +
+           "FROM FollowEdge f JOIN userModel u ON u.id = f.followeeId " +
+           "WHERE f.followerId = :userId AND f.followeeId > :afterId ORDER BY f.followeeId")
+    List<UserSummary> findFolloweeSummaries(@Param("userId") Long userId,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+    
+    // Users that viewerId follows who follow targetId (used until the in-memory graph is loaded)
+    @Query("SELECT COUNT(f2) FROM FollowEdge f1, FollowEdge f2 " +
+           "WHERE f1.followerId = :viewerId AND f2.followerId = f1.followeeId AND f2.followeeId = :targetId")
+    long countFolloweesFollowing(@Param("viewerId") Long viewerId, @Param("targetId") Long targetId);
+    
+    @Query("SELECT f2.followerId FROM FollowEdge f1, FollowEdge f2 " +
+           "WHERE f1.followerId = :viewerId AND f2.followerId = f1.followeeId AND f2.followeeId = :targetId " +
+           "ORDER BY f2.followerId")
+    List<Long> findFolloweesFollowing(@Param("viewerId") Long viewerId,
+                                      @Param("targetId") Long targetId,
+                                      Pageable pageable);
+    
+    // Ids of followed users that have at least the given number of followers
+    @Query("SELECT u.id FROM FollowEdge f JOIN userModel u ON u.id = f.followeeId " +
+           "WHERE f.followerId = :userId AND u.followerCount >= :minFollowers")
+    List<Long> findFolloweeIdsWithFollowersAtLeast(@Param("userId") Long userId,
+                                                   @Param("minFollowers") int minFollowers);
+    
+    @Query(value = "SELECT COUNT(*) FROM information_schema.tables " +
+                   "WHERE table_schema = DATABASE() AND table_name = 'user_model_following'", nativeQuery = true)
+    long countLegacyFollowTables();
+    
+    // Copy relationships from the old user_model_following collection table (MySQL)
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO follow_edge (follower_id, followee_id, created_at) " +
+                   "SELECT f.user_model_id, CAST(f.following AS UNSIGNED), NOW() " +
+                   "FROM user_model_following f", nativeQuery = true)
+    int importLegacyFollowLists();
+}
@@ -2,6 +2,10 @@ package backend.repostry;
 
 import backend.model.LearningPlanModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -19,4 +23,21 @@ public interface LearningPlanRepository extends JpaRepository<LearningPlanModel,
     List<LearningPlanModel> findByStatus(String status);
     
     List<LearningPlanModel> findByUserIdAndStatus(String userId, String status);
+    
+    @Query("SELECT p.likes FROM LearningPlanModel p WHERE p.planId = :planId")
+    Integer findLikesByPlanId(@Param("planId") String planId);
+    
+    // Add to the like counter in place, never going below zero
+    @Transactional
+    @Modifying
+    @Query("UPDATE LearningPlanModel p SET p.likes = CASE WHEN p.likes + :delta < 0 THEN 0 ELSE p.likes + :delta END " +
+           "WHERE p.planId = :planId")
+    int adjustLikes(@Param("planId") String planId, @Param("delta") int delta);
+    
+    // Set the like counter to the number of recorded likes
+    @Transactional
+    @Modifying
+    @Query("UPDATE LearningPlanModel p SET p.likes = (SELECT CAST(COUNT(l) AS Integer) FROM ContentLike l " +
+           "WHERE l.targetType = 'learning_plan' AND l.targetId = p.planId) WHERE p.planId = :planId")
+    int recountLikes(@Param("planId") String planId);
 }
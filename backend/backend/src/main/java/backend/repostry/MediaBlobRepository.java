@@ -0,0 +1,48 @@
+package backend.repostry;
+
+import backend.model.MediaBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+    
+    // Add a reference, creating the row on first upload (MySQL).
+    // Returns 1 if the row was created and 2 if an existing blob gained a reference.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO media_blob (hash, extension, size_bytes, ref_count, width, height, created_at, last_referenced_at) " +
+                   "VALUES (:hash, :extension, :sizeBytes, 1, :width, :height, NOW(), NOW()) " +
+                   "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, last_referenced_at = NOW()", nativeQuery = true)
+    int addReference(@Param("hash") String hash,
+                     @Param("extension") String extension,
+                     @Param("sizeBytes") long sizeBytes,
+                     @Param("width") Integer width,
+                     @Param("height") Integer height);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE MediaBlob b SET b.refCount = b.refCount - 1, b.lastReferencedAt = CURRENT_TIMESTAMP " +
+           "WHERE b.hash = :hash AND b.refCount > 0")
+    int removeReference(@Param("hash") String hash);
+    
+    // Locks the row until the transaction ends; addReference on it waits meanwhile
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<MediaBlob> findLockedByHash(String hash);
+    
+    // Returns 1 if the row was removed; blobs still referenced, or referenced since the cutoff, are kept
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM MediaBlob b WHERE b.hash = :hash AND b.refCount <= 0 " +
+           "AND COALESCE(b.lastReferencedAt, b.createdAt) < :cutoff")
+    int deleteIfIdleSince(@Param("hash") String hash, @Param("cutoff") LocalDateTime cutoff);
+}
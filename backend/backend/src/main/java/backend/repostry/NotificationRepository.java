@@ -1,10 +1,14 @@
 package backend.repostry;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import backend.model.Notification;
 
@@ -23,4 +27,27 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserIdAndTypeOrderByCreatedAtDesc(String userId, String type);
     
     List<Notification> findByRelatedItemId(String relatedItemId);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.isRead = false")
+    int markAsRead(@Param("id") Long id);
+    
+    // Set-based updates: one statement per click, returning how many rows changed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.userId = :userId AND n.isRead = false")
+    int markAllAsRead(@Param("userId") String userId);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isViewed = true WHERE n.userId = :userId AND n.isViewed = false")
+    int markAllAsViewed(@Param("userId") String userId);
+    
+    // Delete up to batchSize read notifications created before the cutoff (MySQL DELETE ... LIMIT)
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM notification WHERE is_read = true AND created_at < :cutoff LIMIT :batchSize",
+           nativeQuery = true)
+    int deleteReadOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
 }
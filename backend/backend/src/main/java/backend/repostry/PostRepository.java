@@ -1,8 +1,14 @@
 package backend.repostry;
 
 import backend.model.PostModel;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PostRepository extends JpaRepository<PostModel, Long> {
@@ -10,6 +16,29 @@ public interface PostRepository extends JpaRepository<PostModel, Long> {
     List<PostModel> findByUserId(String userId);
     List<PostModel> findAllByOrderByCreatedAtDesc();
     
+    // First page of the home feed, newest first
+    List<PostModel> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+    
+    // Next page of the home feed, seeking past the (createdAt, id) of the last post already returned
+    @Query("SELECT p FROM PostModel p WHERE p.createdAt < :createdAt " +
+           "OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostModel> findFeedPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+    
+    // Latest posts from a set of authors, used to pull posts that were not fanned out
+    @Query("SELECT p FROM PostModel p WHERE p.userId IN :userIds ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostModel> findByAuthorsNewestFirst(@Param("userIds") List<String> userIds, Pageable pageable);
+    
+    @Query("SELECT p FROM PostModel p WHERE p.userId IN :userIds " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostModel> findByAuthorsPageAfter(@Param("userIds") List<String> userIds,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+    
     // Find posts by type
     List<PostModel> findByPostTypeOrderByCreatedAtDesc(String postType);
     
@@ -18,4 +47,31 @@ public interface PostRepository extends JpaRepository<PostModel, Long> {
     
     // Find posts by template
     List<PostModel> findByTemplateOrderByCreatedAtDesc(String template);
+    
+    @Query("SELECT p.postId FROM PostModel p WHERE p.id = :id")
+    String findPostIdById(@Param("id") Long id);
+    
+    @Query("SELECT p.likes FROM PostModel p WHERE p.postId = :postId")
+    Integer findLikesByPostId(@Param("postId") String postId);
+    
+    // Add to the like counter in place, never going below zero
+    @Transactional
+    @Modifying
+    @Query("UPDATE PostModel p SET p.likes = CASE WHEN p.likes + :delta < 0 THEN 0 ELSE p.likes + :delta END " +
+           "WHERE p.postId = :postId")
+    int adjustLikes(@Param("postId") String postId, @Param("delta") int delta);
+    
+    // Set the like counter to the number of recorded likes
+    @Transactional
+    @Modifying
+    @Query("UPDATE PostModel p SET p.likes = (SELECT CAST(COUNT(l) AS Integer) FROM ContentLike l " +
+           "WHERE l.targetType = 'post' AND l.targetId = p.postId) WHERE p.postId = :postId")
+    int recountLikes(@Param("postId") String postId);
+    
+    // Add to the comment counter in place, never going below zero
+    @Transactional
+    @Modifying
+    @Query("UPDATE PostModel p SET p.commentCount = CASE WHEN p.commentCount + :delta < 0 THEN 0 " +
+           "ELSE p.commentCount + :delta END WHERE p.postId = :postId")
+    int adjustCommentCount(@Param("postId") String postId, @Param("delta") int delta);
 }
@@ -0,0 +1,25 @@
+package backend.repostry;
+
+import backend.model.SuggestionRefresh;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SuggestionRefreshRepository extends JpaRepository<SuggestionRefresh, Long> {
+
+    // When the user's list was last rebuilt in full; null if it never was
+    @Query("SELECT r.computedAt FROM SuggestionRefresh r WHERE r.userId = :userId")
+    LocalDateTime findComputedAt(@Param("userId") Long userId);
+
+    // Record a rebuild (MySQL upsert, so concurrent rebuilds don't collide on the key)
+    @Modifying
+    @Query(value = "INSERT INTO suggestion_refresh (user_id, computed_at) VALUES (:userId, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE computed_at = NOW()",
+           nativeQuery = true)
+    int markRebuilt(@Param("userId") Long userId);
+}
@@ -0,0 +1,44 @@
+package backend.repostry;
+
+import backend.model.TimelineEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TimelineRepository extends JpaRepository<TimelineEntry, Long> {
+    
+    // First page of a user's timeline, newest first
+    List<TimelineEntry> findByOwnerIdOrderByCreatedAtDescPostIdDesc(String ownerId, Pageable pageable);
+    
+    // Next page of a user's timeline, seeking past the (createdAt, postId) of the last entry returned
+    @Query("SELECT t FROM TimelineEntry t WHERE t.ownerId = :ownerId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.postId < :postId)) " +
+           "ORDER BY t.createdAt DESC, t.postId DESC")
+    List<TimelineEntry> findPageAfter(@Param("ownerId") String ownerId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("postId") Long postId,
+                                      Pageable pageable);
+    
+    // Owners whose timeline grew past the retention limit
+    @Query("SELECT t.ownerId FROM TimelineEntry t GROUP BY t.ownerId HAVING COUNT(t) > :maxSize")
+    List<String> findOwnersLargerThan(@Param("maxSize") long maxSize);
+    
+    // Drop everything at or below the given (createdAt, postId) position
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.ownerId = :ownerId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.postId <= :postId))")
+    int deleteOlderThan(@Param("ownerId") String ownerId,
+                        @Param("createdAt") LocalDateTime createdAt,
+                        @Param("postId") Long postId);
+    
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+}
@@ -0,0 +1,116 @@
+package backend.repostry;
+
+import backend.model.UserSuggestion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+// The native statements are MySQL: INSERT ... ON DUPLICATE KEY UPDATE, INSERT IGNORE,
+// multi-table UPDATE and DELETE ... ORDER BY ... LIMIT
+@Repository
+public interface UserSuggestionRepository extends JpaRepository<UserSuggestion, Long> {
+
+    // Best suggestions first
+    List<UserSuggestion> findByUserIdOrderByMutualCountDescCandidateIdAsc(Long userId, Pageable pageable);
+
+    long countByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserSuggestion s WHERE s.userId = :userId")
+    int deleteByUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserSuggestion s WHERE s.userId = :userId AND s.candidateId = :candidateId")
+    int deleteSuggestion(@Param("userId") Long userId, @Param("candidateId") Long candidateId);
+
+    // Second-degree traversal: users followed by the people the user follows (at most
+    // maxFollowees of them, newest first), ranked by how many of those follow them
+    @Modifying
+    @Query(value = "INSERT INTO user_suggestion (user_id, candidate_id, mutual_count, computed_at) " +
+                   "SELECT :userId, f2.followee_id, COUNT(*), NOW() " +
+                   "FROM (SELECT followee_id FROM follow_edge WHERE follower_id = :userId " +
+                   "      ORDER BY id DESC LIMIT :maxFollowees) f1 " +
+                   "JOIN follow_edge f2 ON f2.follower_id = f1.followee_id " +
+                   "WHERE f2.followee_id <> :userId AND NOT EXISTS (SELECT 1 FROM follow_edge m " +
+                   "      WHERE m.follower_id = :userId AND m.followee_id = f2.followee_id) " +
+                   "GROUP BY f2.followee_id ORDER BY COUNT(*) DESC, f2.followee_id LIMIT :size",
+           nativeQuery = true)
+    int insertSecondDegree(@Param("userId") Long userId,
+                           @Param("maxFollowees") int maxFollowees,
+                           @Param("size") int size);
+
+    // The user started following followeeId: everyone followeeId follows gains a mutual
+    @Modifying
+    @Query(value = "INSERT INTO user_suggestion (user_id, candidate_id, mutual_count, computed_at) " +
+                   "SELECT :userId, f.followee_id, 1, NOW() FROM follow_edge f " +
+                   "WHERE f.follower_id = :followeeId AND f.followee_id <> :userId " +
+                   "AND NOT EXISTS (SELECT 1 FROM follow_edge m " +
+                   "      WHERE m.follower_id = :userId AND m.followee_id = f.followee_id) " +
+                   "ORDER BY f.id DESC LIMIT :maxFanOut " +
+                   "ON DUPLICATE KEY UPDATE user_suggestion.mutual_count = user_suggestion.mutual_count + 1",
+           nativeQuery = true)
+    int addMutualsOfFollowee(@Param("userId") Long userId,
+                             @Param("followeeId") Long followeeId,
+                             @Param("maxFanOut") int maxFanOut);
+
+    // The reverse, after an unfollow
+    @Modifying
+    @Query(value = "UPDATE user_suggestion s JOIN follow_edge f ON f.followee_id = s.candidate_id " +
+                   "SET s.mutual_count = s.mutual_count - 1 " +
+                   "WHERE s.user_id = :userId AND f.follower_id = :followeeId",
+           nativeQuery = true)
+    int removeMutualsOfFollowee(@Param("userId") Long userId, @Param("followeeId") Long followeeId);
+
+    // userId started following followeeId: followeeId gains a mutual for the users following
+    // userId who already have a list and don't follow followeeId themselves
+    @Modifying
+    @Query(value = "INSERT INTO user_suggestion (user_id, candidate_id, mutual_count, computed_at) " +
+                   "SELECT f.follower_id, :followeeId, 1, NOW() FROM follow_edge f " +
+                   "WHERE f.followee_id = :userId AND f.follower_id <> :followeeId " +
+                   "AND EXISTS (SELECT 1 FROM suggestion_refresh r WHERE r.user_id = f.follower_id) " +
+                   "AND NOT EXISTS (SELECT 1 FROM follow_edge m " +
+                   "      WHERE m.follower_id = f.follower_id AND m.followee_id = :followeeId) " +
+                   "ORDER BY f.id DESC LIMIT :maxFanOut " +
+                   "ON DUPLICATE KEY UPDATE user_suggestion.mutual_count = user_suggestion.mutual_count + 1",
+           nativeQuery = true)
+    int addMutualForFollowers(@Param("userId") Long userId,
+                              @Param("followeeId") Long followeeId,
+                              @Param("maxFanOut") int maxFanOut);
+
+    @Modifying
+    @Query(value = "UPDATE user_suggestion s JOIN follow_edge f ON f.follower_id = s.user_id " +
+                   "SET s.mutual_count = s.mutual_count - 1 " +
+                   "WHERE f.followee_id = :userId AND s.candidate_id = :followeeId",
+           nativeQuery = true)
+    int removeMutualForFollowers(@Param("userId") Long userId, @Param("followeeId") Long followeeId);
+
+    // Re-add a user that was unfollowed, if the people the user follows still follow them
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_suggestion (user_id, candidate_id, mutual_count, computed_at) " +
+                   "SELECT :userId, :candidateId, COUNT(*), NOW() FROM follow_edge f1 " +
+                   "JOIN follow_edge f2 ON f2.follower_id = f1.followee_id " +
+                   "WHERE f1.follower_id = :userId AND f2.followee_id = :candidateId " +
+                   "HAVING COUNT(*) > 0",
+           nativeQuery = true)
+    int insertCandidate(@Param("userId") Long userId, @Param("candidateId") Long candidateId);
+
+    @Modifying
+    @Query("DELETE FROM UserSuggestion s WHERE s.userId = :userId AND s.mutualCount <= 0")
+    int deleteEmptyForUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserSuggestion s WHERE s.candidateId = :candidateId AND s.mutualCount <= 0")
+    int deleteEmptyForCandidate(@Param("candidateId") Long candidateId);
+
+    // Drop the weakest suggestions beyond the stored list size
+    @Modifying
+    @Query(value = "DELETE FROM user_suggestion WHERE user_id = :userId " +
+                   "ORDER BY mutual_count ASC, candidate_id DESC LIMIT :excess",
+           nativeQuery = true)
+    int deleteWeakest(@Param("userId") Long userId, @Param("excess") int excess);
+}
@@ -1,9 +1,78 @@
 package backend.repostry;
 
+import backend.model.UserAccount;
+import backend.model.UserProfile;
+import backend.model.UserSummary;
 import backend.model.userModel;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface userRepository extends JpaRepository<userModel,Long> {
     // Change return type to Optional<userModel>
     java.util.Optional<userModel> findByEmail(String email);
+    
+    // Id, name and avatar for many users in one query
+    @Query("SELECT u.id AS id, u.fullname AS fullname, u.profileImageUrl AS profileImageUrl " +
+           "FROM userModel u WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT u.id AS id, u.fullname AS fullname, u.bio AS bio, u.profileImageUrl AS profileImageUrl, " +
+           "u.postCount AS postCount, u.followerCount AS followerCount, u.followingCount AS followingCount " +
+           "FROM userModel u WHERE u.id = :id")
+    Optional<UserProfile> findProfileById(@Param("id") Long id);
+    
+    @Query("SELECT u.id AS id, u.fullname AS fullname, u.bio AS bio, u.profileImageUrl AS profileImageUrl, " +
+           "u.postCount AS postCount, u.followerCount AS followerCount, u.followingCount AS followingCount " +
+           "FROM userModel u WHERE u.id IN :ids")
+    List<UserProfile> findProfilesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT u.id AS id, u.fullname AS fullname, u.bio AS bio, u.profileImageUrl AS profileImageUrl, " +
+           "u.postCount AS postCount, u.followerCount AS followerCount, u.followingCount AS followingCount, " +
+           "u.email AS email, u.phone AS phone FROM userModel u WHERE u.id = :id")
+    Optional<UserAccount> findAccountById(@Param("id") Long id);
+    
+    // Fallback suggestions for users with no second-degree candidates
+    @Query("SELECT u.id FROM userModel u ORDER BY u.followerCount DESC, u.id")
+    List<Long> findMostFollowedIds(Pageable pageable);
+    
+    // Newest accounts first
+    @Query("SELECT u.id AS id, u.fullname AS fullname, u.bio AS bio, u.profileImageUrl AS profileImageUrl, " +
+           "u.postCount AS postCount, u.followerCount AS followerCount, u.followingCount AS followingCount, " +
+           "u.email AS email, u.phone AS phone FROM userModel u ORDER BY u.id DESC")
+    List<UserAccount> findRecentAccounts(Pageable pageable);
+    
+    // Counter updates touch a single row and never load the entity
+    @Modifying
+    @Query("UPDATE userModel u SET u.followerCount = u.followerCount + :delta WHERE u.id = :id")
+    int adjustFollowerCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE userModel u SET u.followingCount = u.followingCount + :delta WHERE u.id = :id")
+    int adjustFollowingCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE userModel u SET u.postCount = CASE WHEN u.postCount + :delta < 0 THEN 0 " +
+           "ELSE u.postCount + :delta END WHERE u.id = :id")
+    int adjustPostCount(@Param("id") Long id, @Param("delta") int delta);
+    
+    // post_count was not kept up to date before; true once any user has a count
+    @Query("SELECT COUNT(u) > 0 FROM userModel u WHERE u.postCount > 0")
+    boolean existsWithPostCount();
+    
+    // Set every user's post counter from the posts table
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE user_model u SET u.post_count = " +
+                   "(SELECT COUNT(*) FROM post_model p WHERE p.user_id = CAST(u.id AS CHAR))",
+           nativeQuery = true)
+    int recountPosts();
 }
@@ -0,0 +1,111 @@
+package backend.service;
+
+import backend.model.CommunityMemberSummary;
+import backend.model.CommunityMembership;
+import backend.model.CommunityModel;
+import backend.repostry.CommunityMembershipRepository;
+import backend.repostry.CommunityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Community membership stored as one CommunityMembership row per (community, user).
+// Membership and moderator checks are single lookups on the unique
+// (community_id, user_id) key, and joining or leaving writes one row and bumps
+// the community's member counter in place instead of rewriting a member list.
+@Service
+public class CommunityMembershipService {
+
+    @Autowired
+    private CommunityMembershipRepository membershipRepository;
+
+    @Autowired
+    private CommunityRepository communityRepository;
+
+    // The creator of a new community is its first member and moderator.
+    // The community's memberCount already starts at 1, so the counter is left alone.
+    @Transactional
+    public void addCreator(CommunityModel community) {
+        membershipRepository.save(new CommunityMembership(
+                community.getCommunityId(), Long.parseLong(community.getCreatorId()), true));
+    }
+
+    // Returns false if the user was already a member
+    @Transactional
+    public boolean join(String communityId, Long userId) {
+        if (membershipRepository.existsByCommunityIdAndUserId(communityId, userId)) {
+            return false;
+        }
+        membershipRepository.saveAndFlush(new CommunityMembership(communityId, userId, false));
+        communityRepository.adjustMemberCount(communityId, 1);
+        return true;
+    }
+
+    // Returns false if the user was not a member
+    @Transactional
+    public boolean leave(String communityId, Long userId) {
+        if (membershipRepository.deleteMembership(communityId, userId) == 0) {
+            return false;
+        }
+        communityRepository.adjustMemberCount(communityId, -1);
+        return true;
+    }
+
+    public boolean isMember(String communityId, String userId) {
+        Long id = parseUserId(userId);
+        return id != null && membershipRepository.existsByCommunityIdAndUserId(communityId, id);
+    }
+
+    public boolean isModerator(String communityId, String userId) {
+        Long id = parseUserId(userId);
+        return id != null && membershipRepository.existsByCommunityIdAndUserIdAndModeratorTrue(communityId, id);
+    }
+
+    // Returns false if the user is not a member of the community
+    @Transactional
+    public boolean setModerator(String communityId, Long userId, boolean moderator) {
+        return membershipRepository.updateModerator(communityId, userId, moderator) > 0;
+    }
+
+    public List<Long> getModeratorIds(String communityId) {
+        return membershipRepository.findModeratorIds(communityId);
+    }
+
+    public List<CommunityMemberSummary> getMembers(String communityId, int page, int size) {
+        return membershipRepository.findMemberSummaries(communityId, PageRequest.of(page, size));
+    }
+
+    public List<CommunityMemberSummary> getModerators(String communityId) {
+        return membershipRepository.findModeratorSummaries(communityId);
+    }
+
+    @Transactional
+    public void removeAll(String communityId) {
+        membershipRepository.deleteByCommunityId(communityId);
+    }
+
+    // One-time copy of memberships kept in the old CommunityModel member/moderator lists
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void importLegacyMembers() {
+        // Fresh databases never had the legacy table
+        if (membershipRepository.count() > 0 || membershipRepository.countLegacyMemberTables() == 0) {
+            return;
+        }
+        int imported = membershipRepository.importLegacyMembers();
+        System.out.println("Imported " + imported + " community memberships from legacy lists");
+    }
+
+    private Long parseUserId(String userId) {
+        try {
+            return userId == null ? null : Long.parseLong(userId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
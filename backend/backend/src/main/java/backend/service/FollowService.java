@@ -0,0 +1,149 @@
+package backend.service;
+
+import backend.model.FollowEdge;
+import backend.repostry.FollowRepository;
+import backend.repostry.userRepository;
+import backend.util.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Follow graph stored as one FollowEdge row per relationship.
+// Following or unfollowing writes a single edge and bumps the two denormalized
+// counters in place, so the cost no longer depends on how many followers a user has.
+// The set of users each active user follows is kept in memory, so "am I following
+// these people?" is answered without a query once the set is loaded.
+@Service
+public class FollowService {
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private userRepository userRepository;
+
+    @Autowired
+    private ProfileCacheService profileCacheService;
+
+    @Autowired
+    private FollowGraphIndex followGraphIndex;
+
+    @Value("${app.follows.following-cache-size:10000}")
+    private int followingCacheSize;
+
+    // Ids each cached user follows
+    private BoundedCache<Long, Set<Long>> followingSets;
+
+    @PostConstruct
+    void init() {
+        followingSets = new BoundedCache<>(followingCacheSize);
+    }
+
+    // Returns false if the relationship already existed
+    @Transactional
+    public boolean follow(Long followerId, Long followeeId) {
+        if (followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId)) {
+            return false;
+        }
+        followRepository.saveAndFlush(new FollowEdge(followerId, followeeId));
+        userRepository.adjustFollowingCount(followerId, 1);
+        userRepository.adjustFollowerCount(followeeId, 1);
+        afterCommit(() -> {
+            followingSets.ifPresent(followerId, following -> following.add(followeeId));
+            profileCacheService.adjustFollowingCount(followerId, 1);
+            profileCacheService.adjustFollowerCount(followeeId, 1);
+            followGraphIndex.addEdge(followerId, followeeId);
+        });
+        return true;
+    }
+
+    // Returns false if there was no relationship to remove
+    @Transactional
+    public boolean unfollow(Long followerId, Long followeeId) {
+        if (followRepository.deleteEdge(followerId, followeeId) == 0) {
+            return false;
+        }
+        userRepository.adjustFollowingCount(followerId, -1);
+        userRepository.adjustFollowerCount(followeeId, -1);
+        afterCommit(() -> {
+            followingSets.ifPresent(followerId, following -> following.remove(followeeId));
+            profileCacheService.adjustFollowingCount(followerId, -1);
+            profileCacheService.adjustFollowerCount(followeeId, -1);
+            followGraphIndex.removeEdge(followerId, followeeId);
+        });
+        return true;
+    }
+
+    public boolean isFollowing(Long followerId, Long followeeId) {
+        return followingSet(followerId).contains(followeeId);
+    }
+
+    // Follow state of the user towards each of the targets, in the order given
+    public Map<Long, Boolean> followingState(Long followerId, Collection<Long> targetIds) {
+        Set<Long> following = followingSet(followerId);
+        Map<Long, Boolean> state = new LinkedHashMap<>();
+        for (Long targetId : targetIds) {
+            state.put(targetId, following.contains(targetId));
+        }
+        return state;
+    }
+
+    public List<Long> getFollowerIds(Long userId) {
+        return followRepository.findFollowerIds(userId);
+    }
+
+    public List<Long> getFollowingIds(Long userId) {
+        return new ArrayList<>(followingSet(userId));
+    }
+
+    // One-time copy of relationships kept in the old userModel follower/following lists
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0) // before FollowGraphIndex loads the graph
+    @Transactional
+    public void importLegacyFollowLists() {
+        // Fresh databases never had the legacy table
+        if (followRepository.count() > 0 || followRepository.countLegacyFollowTables() == 0) {
+            return;
+        }
+        int imported = followRepository.importLegacyFollowLists();
+        System.out.println("Imported " + imported + " follow relationships from legacy lists");
+    }
+
+    // Loaded with one indexed query on first use, then kept up to date by follow/unfollow
+    private Set<Long> followingSet(Long userId) {
+        return followingSets.computeIfAbsent(userId, id -> {
+            Set<Long> following = ConcurrentHashMap.newKeySet();
+            following.addAll(followRepository.findFolloweeIds(id));
+            return following;
+        });
+    }
+
+    // Cached sets only change once the edge is really in the database
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,273 @@
+package backend.service;
+
+import backend.storage.BlobStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+
+// Smaller copies of uploaded images for thumbnails, feed cards and full-screen views.
+// Each configured width gets a blob "<name>_w<width>.<ext>" next to the original,
+// written by a small background pool once the upload has been stored. Images stored
+// before content addressing keep their derivative files beside them on local disk. Widths at or
+// above the original's are skipped; the original is served for those instead.
+// Only JPEG and PNG are resized (GIF would lose its animation, and the JDK cannot
+// decode WebP).
+@Service
+public class ImageDerivativeService {
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private static final String TEMP_PREFIX = ".derivative";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${app.images.derivative-widths:160,640,1280}")
+    private int[] widths;
+
+    @Value("${app.upload.staging-dir:./uploads-staging}")
+    private String stagingDir;
+
+    // Pixel size of an image read from its header only, or null if the format is not readable
+    public int[] readSize(Path original) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            ImageReader reader = readerFor(in);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                reader.setInput(in, true, true);
+                return new int[] {reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Resize a stored blob into each configured width smaller than it, storing the copies as blobs too
+    @Async("imageDerivativeExecutor")
+    public void generate(String key) {
+        String extension = extensionOf(key);
+        if (!extension.equals("jpg") && !extension.equals("png")) {
+            return;
+        }
+        Path downloaded = null;
+        try {
+            Path original = blobStore.localPath(key);
+            if (original == null) {
+                // Remote store: work on a local copy
+                downloaded = Files.createTempFile(stagingDirectory(), TEMP_PREFIX, TEMP_SUFFIX);
+                try (InputStream in = blobStore.open(key)) {
+                    Files.copy(in, downloaded, StandardCopyOption.REPLACE_EXISTING);
+                }
+                original = downloaded;
+            }
+            int[] size = readSize(original);
+            if (size == null) {
+                return;
+            }
+            int largest = Arrays.stream(widths).filter(w -> w < size[0]).max().orElse(0);
+            if (largest == 0) {
+                return;
+            }
+            BufferedImage source = decode(original, size[0], largest);
+            for (int width : widths) {
+                if (width < size[0]) {
+                    write(resize(source, width, extension), derivativeKey(key, width), extension);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Derivatives are optional; the original is served when they are missing
+            System.err.println("Failed to create derivatives of " + key + ": " + e.getMessage());
+        } finally {
+            if (downloaded != null) {
+                try {
+                    Files.deleteIfExists(downloaded);
+                } catch (IOException e) {
+                    System.err.println("Failed to delete " + downloaded + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // The smallest stored derivative of a blob at least the requested width wide, or the blob itself
+    public String selectKey(String key, int requestedWidth) {
+        return Arrays.stream(widths)
+                .filter(w -> w >= requestedWidth)
+                .sorted()
+                .mapToObj(w -> derivativeKey(key, w))
+                .filter(blobStore::exists)
+                .findFirst()
+                .orElse(key);
+    }
+
+    // Returns the number of bytes freed
+    public long deleteDerivatives(String key) throws IOException {
+        long freed = 0;
+        for (int width : widths) {
+            freed += blobStore.delete(derivativeKey(key, width));
+        }
+        return freed;
+    }
+
+    // The smallest stored derivative at least the requested width wide, or the original
+    public Path select(Path original, int requestedWidth) {
+        return Arrays.stream(widths)
+                .filter(w -> w >= requestedWidth)
+                .sorted()
+                .mapToObj(w -> derivativePath(original, w))
+                .filter(Files::exists)
+                .findFirst()
+                .orElse(original);
+    }
+
+    // Returns the number of bytes freed
+    public long deleteDerivatives(Path original) {
+        long freed = 0;
+        for (int width : widths) {
+            Path derivative = derivativePath(original, width);
+            try {
+                long size = Files.exists(derivative) ? Files.size(derivative) : 0;
+                if (Files.deleteIfExists(derivative)) {
+                    freed += size;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to delete derivative of " + original.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return freed;
+    }
+
+    // Name of the original a derivative was made from, or null if the name is not a derivative's
+    public String originalName(String name) {
+        int dot = name.lastIndexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        String extension = dot < 0 ? "" : name.substring(dot);
+        for (int width : widths) {
+            String suffix = "_w" + width;
+            if (base.endsWith(suffix) && base.length() > suffix.length()) {
+                return base.substring(0, base.length() - suffix.length()) + extension;
+            }
+        }
+        return null;
+    }
+
+    public Path originalOf(Path file) {
+        String original = originalName(file.getFileName().toString());
+        return original == null ? null : file.resolveSibling(original);
+    }
+
+    // Leftover of a derivative write that was interrupted
+    public boolean isTemporaryFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX);
+    }
+
+    public Path derivativePath(Path original, int width) {
+        return original.resolveSibling(derivativeKey(original.getFileName().toString(), width));
+    }
+
+    public String derivativeKey(String name, int width) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0
+                ? name + "_w" + width
+                : name.substring(0, dot) + "_w" + width + name.substring(dot);
+    }
+
+    // Decode, skipping rows and columns of very large images so memory stays bounded
+    private BufferedImage decode(Path original, int originalWidth, int largestWidth) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            ImageReader reader = readerFor(in);
+            if (reader == null) {
+                throw new IOException("Unreadable image");
+            }
+            try {
+                reader.setInput(in, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, originalWidth / (largestWidth * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int width, String extension) {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        int type = extension.equals("png") ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // Write to a temporary file first so a half-written derivative is never served
+    private void write(BufferedImage image, String key, String extension) throws IOException {
+        Path temp = Files.createTempFile(stagingDirectory(), TEMP_PREFIX, TEMP_SUFFIX);
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(extension.equals("png") ? "png" : "jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (extension.equals("jpg")) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(JPEG_QUALITY);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            blobStore.put(key, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static ImageReader readerFor(ImageInputStream in) {
+        if (in == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        return readers.hasNext() ? readers.next() : null;
+    }
+
+    private Path stagingDirectory() {
+        return Paths.get(stagingDir).toAbsolutePath().normalize();
+    }
+
+    private static String extensionOf(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase();
+    }
+}
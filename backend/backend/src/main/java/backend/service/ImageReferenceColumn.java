@@ -0,0 +1,48 @@
+package backend.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// A database column holding names of uploaded images, and the upload category
+// its old (not content-addressed) files were stored under.
+public final class ImageReferenceColumn {
+
+    public static final List<ImageReferenceColumn> ALL = List.of(
+            new ImageReferenceColumn("post_model", "id", "image_url", UploadService.POSTS),
+            new ImageReferenceColumn("community_post_model", "id", "image_url", UploadService.COMMUNITY_POSTS),
+            new ImageReferenceColumn("community_model", "id", "cover_image_url", UploadService.COMMUNITIES),
+            new ImageReferenceColumn("user_model", "id", "profile_image_url", UploadService.PROFILES),
+            new ImageReferenceColumn("inventory_model", "id", "item_image", UploadService.INVENTORY));
+
+    private final String table;
+    private final String idColumn;
+    private final String imageColumn;
+    private final String category;
+
+    public ImageReferenceColumn(String table, String idColumn, String imageColumn, String category) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.imageColumn = imageColumn;
+        this.category = category;
+    }
+
+    public static List<ImageReferenceColumn> forCategory(String category) {
+        return ALL.stream().filter(column -> column.category.equals(category)).collect(Collectors.toList());
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    public String getImageColumn() {
+        return imageColumn;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+}
@@ -0,0 +1,278 @@
+package backend.service;
+
+import backend.model.ContentLike;
+import backend.repostry.CommunityPostRepository;
+import backend.repostry.ContentLikeRepository;
+import backend.repostry.LearningPlanRepository;
+import backend.repostry.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Like/unlike for posts, learning plans and community posts.
+// Each like is recorded once per user in ContentLike. The like counter on the
+// post or plan is then changed with a single atomic UPDATE. Targets that receive
+// many likes within one flush interval are "hot": their counter changes are
+// collected in a striped LongAdder and written to the database in one UPDATE
+// per flush instead of contending on the same row. A periodic reconcile recounts
+// recently changed targets from ContentLike, so counters can't drift for long.
+@Service
+public class LikeService {
+
+    @Autowired
+    private ContentLikeRepository contentLikeRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LearningPlanRepository learningPlanRepository;
+
+    @Autowired
+    private CommunityPostRepository communityPostRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.likes.hot-threshold:50}")
+    private int hotThreshold;
+
+    @Value("${app.likes.startup-reconcile-minutes:60}")
+    private long startupReconcileMinutes;
+
+    // Likes seen per target in the current flush interval, used to detect hot targets
+    private final Map<String, LongAdder> recentLikes = new ConcurrentHashMap<>();
+
+    // Counter changes of hot targets not yet written to the database
+    private final Map<String, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+
+    // Targets whose likes changed since the last reconcile
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
+    // Adders dropped from pendingDeltas last flush, drained once more to catch late increments
+    private List<Map.Entry<String, LongAdder>> retired = new ArrayList<>();
+
+    // Returns false if the user had already liked the target
+    public boolean like(String targetType, String targetId, String userId) {
+        if (contentLikeRepository.existsByTargetTypeAndTargetIdAndUserId(targetType, targetId, userId)) {
+            return false;
+        }
+        boolean hot = isHot(targetType, targetId);
+        try {
+            // The like and the counter change commit together, unless the counter is buffered
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                contentLikeRepository.saveAndFlush(new ContentLike(targetType, targetId, userId));
+                if (!hot) {
+                    write(targetType, targetId, 1);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request recorded the same like
+            return false;
+        }
+        if (hot) {
+            buffer(targetType, targetId, 1);
+        }
+        touched.add(key(targetType, targetId));
+        return true;
+    }
+
+    // Returns false if the user had not liked the target
+    public boolean unlike(String targetType, String targetId, String userId) {
+        boolean hot = isHot(targetType, targetId);
+        Boolean removed = new TransactionTemplate(transactionManager).execute(status -> {
+            if (contentLikeRepository.deleteLike(targetType, targetId, userId) == 0) {
+                return false;
+            }
+            if (!hot) {
+                write(targetType, targetId, -1);
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(removed)) {
+            return false;
+        }
+        if (hot) {
+            buffer(targetType, targetId, -1);
+        }
+        touched.add(key(targetType, targetId));
+        return true;
+    }
+
+    // Call when the target is deleted, so its likes don't outlive it (or carry over
+    // to a target created later under the same id)
+    @Transactional
+    public void removeAll(String targetType, String targetId) {
+        contentLikeRepository.deleteByTarget(targetType, targetId);
+        pendingDeltas.remove(key(targetType, targetId));
+        touched.remove(key(targetType, targetId));
+    }
+
+    // The subset of the given targets that the user has liked
+    public Set<String> likedTargetIds(String targetType, String userId, Collection<String> targetIds) {
+        if (userId == null || targetIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(contentLikeRepository.findLikedTargetIds(targetType, userId, targetIds));
+    }
+
+    // Counter change accepted for a target but not yet written to the database
+    public long pendingDelta(String targetType, String targetId) {
+        LongAdder pending = pendingDeltas.get(key(targetType, targetId));
+        return pending == null ? 0 : pending.sum();
+    }
+
+    // Write buffered counter changes of hot targets to the database
+    @Scheduled(fixedDelayString = "${app.likes.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        recentLikes.clear();
+
+        for (Map.Entry<String, LongAdder> entry : retired) {
+            drain(entry.getKey(), entry.getValue());
+            // Anything still left (e.g. a failed write) moves back to the live buffer
+            long left = entry.getValue().sum();
+            if (left != 0) {
+                entry.getValue().add(-left);
+                pendingDeltas.computeIfAbsent(entry.getKey(), k -> new LongAdder()).add(left);
+            }
+        }
+        retired = new ArrayList<>();
+
+        for (Map.Entry<String, LongAdder> entry : pendingDeltas.entrySet()) {
+            if (drain(entry.getKey(), entry.getValue()) == 0
+                    && pendingDeltas.remove(entry.getKey(), entry.getValue())) {
+                // Went quiet; later likes take the direct path again
+                retired.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    // Recount the likes of targets changed since the last run. Counters can drift when
+    // buffered changes are lost (a crash between flushes) or a write fails; targets
+    // with changes still buffered wait for a later run, as their counter is behind.
+    @Scheduled(fixedDelayString = "${app.likes.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        for (String key : new ArrayList<>(touched)) {
+            if (pendingDeltas.containsKey(key) || isRetired(key)) {
+                continue;
+            }
+            touched.remove(key);
+            int separator = key.indexOf(':');
+            try {
+                recount(key.substring(0, separator), key.substring(separator + 1));
+            } catch (Exception e) {
+                touched.add(key);
+                System.err.println("Failed to recount likes for " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Buffered changes of the previous run were lost if it crashed, so recount what was liked just before
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileRecentOnStartup() {
+        touched.addAll(contentLikeRepository.findTargetKeysLikedSince(
+                LocalDateTime.now().minusMinutes(startupReconcileMinutes)));
+    }
+
+    // One-time copy of community post likes kept in the old CommunityPostModel likes list
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void importLegacyCommunityPostLikes() {
+        if (contentLikeRepository.existsByTargetType(ContentLike.COMMUNITY_POST)
+                || contentLikeRepository.countLegacyCommunityPostLikeTables() == 0) {
+            return;
+        }
+        int imported = contentLikeRepository.importLegacyCommunityPostLikes();
+        System.out.println("Imported " + imported + " community post likes from legacy lists");
+    }
+
+    // Don't lose buffered likes on a graceful shutdown
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Counts the like towards hot detection; true if its counter change should be buffered
+    private boolean isHot(String targetType, String targetId) {
+        String key = key(targetType, targetId);
+        if (pendingDeltas.containsKey(key)) {
+            return true;
+        }
+        LongAdder recent = recentLikes.computeIfAbsent(key, k -> new LongAdder());
+        recent.increment();
+        return recent.sum() >= hotThreshold;
+    }
+
+    private void buffer(String targetType, String targetId, int delta) {
+        pendingDeltas.computeIfAbsent(key(targetType, targetId), k -> new LongAdder()).add(delta);
+    }
+
+    // Write whatever the adder holds and subtract exactly that amount,
+    // so increments racing with the flush stay in the adder for the next one
+    private long drain(String key, LongAdder adder) {
+        long delta = adder.sum();
+        if (delta == 0) {
+            return 0;
+        }
+        int separator = key.indexOf(':');
+        try {
+            write(key.substring(0, separator), key.substring(separator + 1), (int) delta);
+            adder.add(-delta);
+        } catch (Exception e) {
+            // Keep the delta buffered and retry on the next flush
+            System.err.println("Failed to flush likes for " + key + ": " + e.getMessage());
+        }
+        return delta;
+    }
+
+    private void write(String targetType, String targetId, int delta) {
+        if (ContentLike.LEARNING_PLAN.equals(targetType)) {
+            learningPlanRepository.adjustLikes(targetId, delta);
+        } else if (ContentLike.COMMUNITY_POST.equals(targetType)) {
+            communityPostRepository.adjustLikeCount(targetId, delta);
+        } else {
+            postRepository.adjustLikes(targetId, delta);
+        }
+    }
+
+    private void recount(String targetType, String targetId) {
+        if (ContentLike.LEARNING_PLAN.equals(targetType)) {
+            learningPlanRepository.recountLikes(targetId);
+        } else if (ContentLike.COMMUNITY_POST.equals(targetType)) {
+            communityPostRepository.recountLikeCount(targetId);
+        } else {
+            postRepository.recountLikes(targetId);
+        }
+    }
+
+    private synchronized boolean isRetired(String key) {
+        for (Map.Entry<String, LongAdder> entry : retired) {
+            if (entry.getKey().equals(key) && entry.getValue().sum() != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String key(String targetType, String targetId) {
+        return targetType + ":" + targetId;
+    }
+}
@@ -0,0 +1,40 @@
+package backend.service;
+
+import backend.repostry.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+// Deletes read notifications once they are older than the retention period.
+// Rows are removed in small batches, each in its own short transaction, so the
+// job never holds locks on a large part of the notification table.
+@Service
+public class NotificationRetentionService {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${app.notifications.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${app.notifications.retention-batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.notifications.retention-interval-ms:3600000}")
+    public void purgeOldReadNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        int deleted;
+        do {
+            deleted = notificationRepository.deleteReadOlderThan(cutoff, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            System.out.println("Deleted " + total + " read notifications older than " + retentionDays + " days");
+        }
+    }
+}
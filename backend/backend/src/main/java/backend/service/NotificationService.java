@@ -0,0 +1,186 @@
+package backend.service;
+
+import backend.model.Notification;
+import backend.repostry.NotificationRepository;
+import backend.util.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Creates notifications and pushes them to the recipient's open browser tabs.
+// Each tab keeps one Server-Sent Events connection. It receives the unread count
+// once when it connects and afterwards only the changes: every new notification
+// ("notification"), and "unread-count-delta" / "unread-count" events when
+// notifications are read. No COUNT query runs while a tab is just waiting.
+//
+// Unread counts are cached per user and adjusted in place whenever a
+// notification is created or read. A user's count is loaded from the database
+// (through the (user_id, is_read) index) the first time it is needed, e.g.
+// after a restart, and again once it is older than the TTL, which bounds any
+// drift from races between a load and a concurrent change. The least recently
+// used counts are evicted once the cache is full.
+@Service
+public class NotificationService {
+
+    public static final String EVENT_NOTIFICATION = "notification";
+    public static final String EVENT_UNREAD_COUNT = "unread-count";
+    public static final String EVENT_UNREAD_COUNT_DELTA = "unread-count-delta";
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${app.notifications.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${app.notifications.unread-cache-size:10000}")
+    private int unreadCacheSize;
+
+    @Value("${app.notifications.unread-ttl-seconds:300}")
+    private long unreadTtlSeconds;
+
+    // Cached unread counts per user id
+    private BoundedCache<String, UnreadCount> unreadCounts;
+
+    // Open streams per recipient user id
+    private final Map<String, Set<SseEmitter>> streams = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        unreadCounts = new BoundedCache<>(unreadCacheSize);
+    }
+
+    // Save a notification and push it to the recipient
+    public Notification create(Notification notification) {
+        Notification saved = notificationRepository.save(notification);
+        if (!saved.isRead()) {
+            adjustUnread(saved.getUserId(), 1);
+        }
+        send(saved.getUserId(), EVENT_NOTIFICATION, saved);
+        return saved;
+    }
+
+    // Returns false if the notification was already read
+    public boolean markAsRead(Notification notification) {
+        // Conditional UPDATE, so two concurrent clicks only count once
+        if (notificationRepository.markAsRead(notification.getId()) == 0) {
+            notification.setRead(true);
+            return false;
+        }
+        notification.setRead(true);
+        adjustUnread(notification.getUserId(), -1);
+        send(notification.getUserId(), EVENT_UNREAD_COUNT_DELTA, -1);
+        return true;
+    }
+
+    public int markAllAsRead(String userId) {
+        int updated = notificationRepository.markAllAsRead(userId);
+        // Reloaded when next needed; setting it to zero would drop notifications created meanwhile
+        unreadCounts.remove(userId);
+        if (updated > 0) {
+            send(userId, EVENT_UNREAD_COUNT, 0L);
+        }
+        return updated;
+    }
+
+    // Served from the cache; the database is asked when the count is missing or expired
+    public long countUnread(String userId) {
+        UnreadCount cached = unreadCounts.get(userId);
+        if (cached != null && System.nanoTime() - cached.expiresAt < 0) {
+            return Math.max(0, cached.value.get());
+        }
+        // Counted outside the cache, so a notification created meanwhile isn't
+        // added on top of a count that already includes it
+        long unread = notificationRepository.countUnreadByUserId(userId);
+        cacheUnread(userId, unread);
+        return unread;
+    }
+
+    // Replace the cached count with one the caller has just read from the database
+    public void refreshUnreadCount(String userId, long unread) {
+        cacheUnread(userId, unread);
+    }
+
+    // Open a stream for one tab, starting with the current unread count
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Set<SseEmitter> userStreams = streams.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet());
+        userStreams.add(emitter);
+
+        Runnable remove = () -> removeStream(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_UNREAD_COUNT).data(countUnread(userId)));
+        } catch (IOException e) {
+            removeStream(userId, emitter);
+        }
+        return emitter;
+    }
+
+    // Comment line that lets proxies keep idle streams open and reveals dead ones
+    @Scheduled(fixedDelayString = "${app.notifications.heartbeat-interval-ms:25000}")
+    public void sendHeartbeats() {
+        streams.forEach((userId, userStreams) -> {
+            for (SseEmitter emitter : userStreams) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    removeStream(userId, emitter);
+                }
+            }
+        });
+    }
+
+    // Counts that are not cached are left alone; they are loaded fresh when next needed
+    private void adjustUnread(String userId, long delta) {
+        unreadCounts.ifPresent(userId, unread -> unread.value.addAndGet(delta));
+    }
+
+    private void cacheUnread(String userId, long unread) {
+        unreadCounts.put(userId, new UnreadCount(unread, System.nanoTime() + unreadTtlSeconds * 1_000_000_000L));
+    }
+
+    private void send(String userId, String eventName, Object data) {
+        Set<SseEmitter> userStreams = streams.get(userId);
+        if (userStreams == null) {
+            return;
+        }
+        for (SseEmitter emitter : userStreams) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(data));
+            } catch (IOException | IllegalStateException e) {
+                // The tab went away; it reconnects on its own if it is still open
+                removeStream(userId, emitter);
+            }
+        }
+    }
+
+    private void removeStream(String userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (k, userStreams) -> {
+            userStreams.remove(emitter);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+
+    // A cached unread count and when it must next be read from the database
+    private static final class UnreadCount {
+        final AtomicLong value;
+        final long expiresAt;
+
+        UnreadCount(long value, long expiresAt) {
+            this.value = new AtomicLong(value);
+            this.expiresAt = expiresAt;
+        }
+    }
+}
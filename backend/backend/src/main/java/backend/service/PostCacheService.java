@@ -0,0 +1,147 @@
+package backend.service;
+
+import backend.model.PostModel;
+import backend.repostry.PostRepository;
+import backend.util.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Read-through cache of single posts, in front of PostRepository.findByPostId.
+// A popular post is read far more often than it changes, so single-post reads are
+// served from memory. Concurrent misses for the same post wait for one database
+// load instead of each running the query. Edits, deletes and comment count changes
+// evict the post; likes update the cached counter in place, since a trending post
+// is liked too often to be evicted each time. Entries are also dropped once older
+// than the TTL, which bounds how stale a post changed elsewhere can be.
+// Cached posts are shared between requests and must not be modified by callers.
+@Service
+public class PostCacheService {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.posts.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.posts.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private BoundedCache<String, CachedPost> posts;
+
+    // Numeric id to postId; a post keeps its postId, so these never go stale
+    private BoundedCache<Long, String> postIds;
+
+    private TransactionTemplate readOnly;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        posts = new BoundedCache<>(maxSize);
+        postIds = new BoundedCache<>(maxSize);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    // The post, or null if there is none
+    public PostModel find(String postId) {
+        CachedPost cached = posts.get(postId);
+        if (cached != null && !cached.isExpired()) {
+            hits.incrementAndGet();
+            return cached.post;
+        }
+        if (cached != null) {
+            posts.remove(postId, cached);
+        }
+        misses.incrementAndGet();
+
+        cached = posts.computeIfAbsent(postId, this::load);
+        if (cached.post == null) {
+            // Not cached, so a post created later under this id is seen right away
+            posts.remove(postId, cached);
+        }
+        return cached.post;
+    }
+
+    public PostModel findById(Long id) {
+        String postId = postIds.get(id);
+        if (postId == null) {
+            String found = postRepository.findPostIdById(id);
+            if (found == null) {
+                return null;
+            }
+            postId = postIds.computeIfAbsent(id, k -> found);
+        }
+        return find(postId);
+    }
+
+    // Call after the change is saved; a load still running is waited for and dropped
+    public void evict(String postId) {
+        if (postId != null) {
+            posts.remove(postId);
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public void updateLikes(String postId, int likes) {
+        posts.ifPresent(postId, cached -> cached.post.setLikes(likes));
+    }
+
+    // Counters since startup
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", posts.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("loads", loads.get());
+        stats.put("coalescedMisses", missCount - loads.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+
+    private CachedPost load(String postId) {
+        loads.incrementAndGet();
+        // Collections are loaded now, while a session is open, since the post outlives it
+        PostModel post = readOnly.execute(status -> {
+            PostModel found = postRepository.findByPostId(postId);
+            if (found != null) {
+                Hibernate.initialize(found.getSkillsLearned());
+                Hibernate.initialize(found.getLearningResources());
+            }
+            return found;
+        });
+        return new CachedPost(post, System.nanoTime() + ttlSeconds * 1_000_000_000L);
+    }
+
+    private static final class CachedPost {
+        final PostModel post;
+        final long expiresAt;
+
+        CachedPost(PostModel post, long expiresAt) {
+            this.post = post;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
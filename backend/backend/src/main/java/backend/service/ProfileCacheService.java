@@ -0,0 +1,216 @@
+package backend.service;
+
+import backend.model.UserProfile;
+import backend.model.userModel;
+import backend.repostry.PostRepository;
+import backend.repostry.userRepository;
+import backend.util.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Public user profiles kept in memory, keyed by user id.
+// Profile cards are opened on every feed item and comment avatar, so profiles are
+// read far more often than they change. Counter changes (follows, posts) are
+// applied to the cached copy in place once written to the database, and profile
+// edits replace the cached fields, so entries are not evicted on every change.
+// Several profiles are loaded with one query for the ones not cached yet.
+// Entries are reloaded after the TTL, which bounds the drift of a counter changed
+// while its profile was being loaded.
+@Service
+public class ProfileCacheService {
+
+    @Autowired
+    private userRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${app.profiles.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.profiles.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private BoundedCache<Long, CachedProfile> profiles;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        profiles = new BoundedCache<>(maxSize);
+    }
+
+    // The profile, or null if there is no such user
+    public UserProfile find(Long userId) {
+        CachedProfile cached = cached(userId);
+        if (cached != null) {
+            return cached;
+        }
+        misses.incrementAndGet();
+        cached = profiles.computeIfAbsent(userId, id -> userRepository.findProfileById(id)
+                .map(this::toCached)
+                .orElse(null));
+        if (cached == null) {
+            // Not kept, so a user created later under this id is seen right away
+            profiles.remove(userId, null);
+        }
+        return cached;
+    }
+
+    // Profiles of the given users that exist, in the order given
+    public List<UserProfile> findAll(Collection<Long> userIds) {
+        Map<Long, UserProfile> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            CachedProfile cached = cached(userId);
+            if (cached != null) {
+                found.put(userId, cached);
+            } else if (!missing.contains(userId)) {
+                found.put(userId, null);
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            misses.addAndGet(missing.size());
+            for (UserProfile profile : userRepository.findProfilesByIdIn(missing)) {
+                CachedProfile loaded = toCached(profile);
+                found.put(profile.getId(), profiles.computeIfAbsent(profile.getId(), id -> loaded));
+            }
+        }
+        found.values().removeIf(profile -> profile == null);
+        return new ArrayList<>(found.values());
+    }
+
+    // Counter updates; call once the change is committed
+    public void adjustFollowerCount(Long userId, int delta) {
+        profiles.ifPresent(userId, cached -> cached.followerCount = Math.max(0, cached.followerCount + delta));
+    }
+
+    public void adjustFollowingCount(Long userId, int delta) {
+        profiles.ifPresent(userId, cached -> cached.followingCount = Math.max(0, cached.followingCount + delta));
+    }
+
+    public void adjustPostCount(Long userId, int delta) {
+        profiles.ifPresent(userId, cached -> cached.postCount = Math.max(0, cached.postCount + delta));
+    }
+
+    // Copy edited profile fields; counters are kept, as the entity's may be older
+    public void updateProfile(userModel user) {
+        profiles.ifPresent(user.getId(), cached -> {
+            cached.fullname = user.getFullname();
+            cached.bio = user.getBio();
+            cached.profileImageUrl = user.getProfileImageUrl();
+        });
+    }
+
+    // One-time fill of post counters, which were not maintained before
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPostCounts() {
+        if (userRepository.existsWithPostCount() || postRepository.count() == 0) {
+            return;
+        }
+        int updated = userRepository.recountPosts();
+        System.out.println("Filled post counts for " + updated + " users");
+    }
+
+    // Counters since startup
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", profiles.size());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+
+    // A fresh cached profile, dropping it once expired
+    private CachedProfile cached(Long userId) {
+        CachedProfile cached = profiles.get(userId);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.expiresAt > 0) {
+            profiles.remove(userId, cached);
+            return null;
+        }
+        hits.incrementAndGet();
+        return cached;
+    }
+
+    private CachedProfile toCached(UserProfile profile) {
+        CachedProfile cached = new CachedProfile(System.nanoTime() + ttlSeconds * 1_000_000_000L);
+        cached.id = profile.getId();
+        cached.fullname = profile.getFullname();
+        cached.bio = profile.getBio();
+        cached.profileImageUrl = profile.getProfileImageUrl();
+        cached.postCount = profile.getPostCount();
+        cached.followerCount = profile.getFollowerCount();
+        cached.followingCount = profile.getFollowingCount();
+        return cached;
+    }
+
+    // Changed only inside BoundedCache.ifPresent, so updates to one profile don't race
+    private static final class CachedProfile implements UserProfile {
+        final long expiresAt;
+        volatile Long id;
+        volatile String fullname;
+        volatile String bio;
+        volatile String profileImageUrl;
+        volatile int postCount;
+        volatile int followerCount;
+        volatile int followingCount;
+
+        CachedProfile(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getFullname() {
+            return fullname;
+        }
+
+        @Override
+        public String getBio() {
+            return bio;
+        }
+
+        @Override
+        public String getProfileImageUrl() {
+            return profileImageUrl;
+        }
+
+        @Override
+        public int getPostCount() {
+            return postCount;
+        }
+
+        @Override
+        public int getFollowerCount() {
+            return followerCount;
+        }
+
+        @Override
+        public int getFollowingCount() {
+            return followingCount;
+        }
+    }
+}
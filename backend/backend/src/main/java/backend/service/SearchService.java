@@ -0,0 +1,451 @@
+package backend.service;
+
+import backend.model.CommunityModel;
+import backend.model.LearningPlanModel;
+import backend.model.PostModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Full-text search over posts, public learning plans and communities, kept in an
+// embedded Lucene index under app.search.index-dir.
+// Each post, plan and community is one document, replaced when it is saved and
+// deleted with it; controllers call index/remove once the change is saved. Changes
+// are searchable within the refresh interval and written to disk every commit
+// interval. Results are ranked by relevance (BM25), with matches in titles counting
+// most, and the last word of a query also matches as a prefix.
+// The index is rebuilt from the database on a background thread the first time it
+// is opened, after an interrupted rebuild, and on request. Rows are read in id
+// order, in batches; documents written since a rebuild started carry its generation,
+// so those left over from rows deleted meanwhile are dropped at the end. Searches
+// use the current index throughout.
+// The index belongs to one instance: it only sees changes made through it.
+@Service
+public class SearchService {
+
+    public static final String POST = "post";
+    public static final String LEARNING_PLAN = "learning_plan";
+    public static final String COMMUNITY = "community";
+
+    private static final String KEY = "key";
+    private static final String TYPE = "type";
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String TAGS = "tags";
+    private static final String BODY = "body";
+    private static final String GENERATION = "generation";
+
+    // Field weights: a word in the title matters more than one in the text
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(TITLE, 3f, TAGS, 2f, BODY, 1f);
+
+    // Words of a query that are looked at
+    private static final int MAX_QUERY_TERMS = 32;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.search.index-dir:./search-index}")
+    private String indexDir;
+
+    @Value("${app.search.batch-size:1000}")
+    private int batchSize;
+
+    // How deep results can be paged
+    @Value("${app.search.max-results:1000}")
+    private int maxResults;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    // Generation given to documents written now, and that of the last complete rebuild
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long rebuiltGeneration;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean dirty;
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private volatile long lastRebuildDocs;
+    private volatile long lastRebuildMs;
+
+    @PostConstruct
+    void open() throws IOException {
+        directory = FSDirectory.open(Paths.get(indexDir));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+
+        Map<String, String> commitData = new HashMap<>();
+        if (writer.getLiveCommitData() != null) {
+            writer.getLiveCommitData().forEach(entry -> commitData.put(entry.getKey(), entry.getValue()));
+        }
+        generation.set(Long.parseLong(commitData.getOrDefault(GENERATION, "0")));
+        rebuiltGeneration = Long.parseLong(commitData.getOrDefault("rebuiltGeneration", "0"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfIncomplete() {
+        if (rebuiltGeneration == 0 || rebuiltGeneration < generation.get()) {
+            startRebuild();
+        }
+    }
+
+    public void indexPost(PostModel post) {
+        if (post != null) {
+            write(POST, post.getPostId(), post.getTitle(), post.getSkillsLearned(), post.getContent());
+        }
+    }
+
+    // Private plans are kept out of the index
+    public void indexLearningPlan(LearningPlanModel plan) {
+        if (plan == null) {
+            return;
+        }
+        if (!plan.isPublic()) {
+            remove(LEARNING_PLAN, plan.getPlanId());
+            return;
+        }
+        write(LEARNING_PLAN, plan.getPlanId(), plan.getTitle(), plan.getTopics(), plan.getDescription());
+    }
+
+    public void indexCommunity(CommunityModel community) {
+        if (community != null) {
+            write(COMMUNITY, community.getCommunityId(), community.getName(), null, community.getDescription());
+        }
+    }
+
+    public void remove(String type, String id) {
+        if (id == null) {
+            return;
+        }
+        try {
+            writer.deleteDocuments(new Term(KEY, type + ":" + id));
+            dirty = true;
+            updates.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            // The next rebuild corrects the index
+            System.err.println("Failed to remove " + type + " " + id + " from the search index: " + e.getMessage());
+        }
+    }
+
+    // One page of results, best first, as {total, page, size, results: [{type, id, title, score}]};
+    // type is null for all types. total stops being exact past the max results.
+    public Map<String, Object> search(String text, String type, int page, int size) throws IOException {
+        searches.incrementAndGet();
+        List<Map<String, Object>> results = new ArrayList<>();
+        long total = 0;
+
+        Query query = buildQuery(text, type);
+        long end = (long) (page + 1) * size;
+        if (query != null && end - size < maxResults) {
+            int from = page * size;
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, (int) Math.min(end, maxResults));
+                total = top.totalHits.value;
+                StoredFields storedFields = searcher.storedFields();
+                for (int i = from; i < top.scoreDocs.length; i++) {
+                    ScoreDoc hit = top.scoreDocs[i];
+                    Document document = storedFields.document(hit.doc);
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("type", document.get(TYPE));
+                    result.put("id", document.get(ID));
+                    result.put("title", document.get(TITLE));
+                    result.put("score", hit.score);
+                    results.add(result);
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("total", total);
+        response.put("page", page);
+        response.put("size", size);
+        response.put("results", results);
+        return response;
+    }
+
+    // Ids of the best matches of one type
+    public List<String> searchIds(String text, String type, int limit) throws IOException {
+        List<String> ids = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> results = (List<Map<String, Object>>) search(text, type, 0, limit).get("results");
+        for (Map<String, Object> result : results) {
+            ids.add((String) result.get("id"));
+        }
+        return ids;
+    }
+
+    // False if a rebuild is already running
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread rebuilder = new Thread(this::rebuild, "search-index-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:1000}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to refresh the search index: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.commit-interval-ms:30000}")
+    public void commitChanges() {
+        if (dirty) {
+            commit();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("documents", writer.getDocStats().numDocs);
+        stats.put("generation", generation.get());
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("lastRebuildDocs", lastRebuildDocs);
+        stats.put("lastRebuildMs", lastRebuildMs);
+        stats.put("searches", searches.get());
+        stats.put("updates", updates.get());
+        return stats;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        commit();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        long rebuildGeneration = generation.incrementAndGet();
+        try {
+            long documents = scan(POST,
+                    "SELECT id, post_id, title, content FROM post_model WHERE id > ? ORDER BY id LIMIT ?",
+                    "SELECT post_id, skill FROM post_skills WHERE post_id IN ");
+            documents += scan(LEARNING_PLAN,
+                    "SELECT id, plan_id, title, description FROM learning_plan_model " +
+                    "WHERE id > ? AND is_public = TRUE ORDER BY id LIMIT ?",
+                    "SELECT plan_id, topic FROM learning_plan_topics WHERE plan_id IN ");
+            documents += scan(COMMUNITY,
+                    "SELECT id, community_id, name, description FROM community_model WHERE id > ? ORDER BY id LIMIT ?",
+                    null);
+
+            // Whatever the rebuild didn't write was deleted from the database
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, rebuildGeneration - 1));
+            rebuiltGeneration = rebuildGeneration;
+            commit();
+            searcherManager.maybeRefresh();
+
+            lastRebuildDocs = documents;
+            lastRebuildMs = System.currentTimeMillis() - started;
+            System.out.println("Rebuilt search index of " + documents + " documents in " + lastRebuildMs + " ms");
+        } catch (IOException | RuntimeException e) {
+            // Started again on the next startup, or on request
+            System.err.println("Failed to rebuild the search index: " + e.getMessage());
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    // Index every row of one table, batchSize rows at a time; tagsSql loads the
+    // tags of a batch by row id, with the id list appended
+    private long scan(String type, String rowsSql, String tagsSql) {
+        long lastId = 0;
+        long documents = 0;
+        while (true) {
+            List<Row> rows = jdbcTemplate.query(rowsSql,
+                    (rs, rowNum) -> new Row(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)),
+                    lastId, batchSize);
+            if (rows.isEmpty()) {
+                return documents;
+            }
+            Map<Long, List<String>> tags = tagsSql == null ? Map.of() : loadTags(tagsSql, rows);
+            for (Row row : rows) {
+                write(type, row.key, row.title, tags.get(row.id), row.body);
+                documents++;
+            }
+            lastId = rows.get(rows.size() - 1).id;
+            if (rows.size() < batchSize) {
+                return documents;
+            }
+        }
+    }
+
+    private Map<Long, List<String>> loadTags(String tagsSql, List<Row> rows) {
+        Map<Long, List<String>> tags = new HashMap<>();
+        jdbcTemplate.query(tagsSql + "(" + String.join(",", Collections.nCopies(rows.size(), "?")) + ")",
+                rs -> {
+                    tags.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(rs.getString(2));
+                },
+                rows.stream().map(row -> row.id).toArray());
+        return tags;
+    }
+
+    private void write(String type, String id, String title, Collection<String> tags, String body) {
+        if (id == null) {
+            return;
+        }
+        String key = type + ":" + id;
+        long documentGeneration = generation.get();
+
+        Document document = new Document();
+        document.add(new StringField(KEY, key, Field.Store.NO));
+        document.add(new StringField(TYPE, type, Field.Store.YES));
+        document.add(new StoredField(ID, id));
+        document.add(new LongPoint(GENERATION, documentGeneration));
+        if (title != null) {
+            document.add(new TextField(TITLE, title, Field.Store.YES));
+        }
+        if (tags != null) {
+            for (String tag : tags) {
+                if (tag != null) {
+                    document.add(new TextField(TAGS, tag, Field.Store.NO));
+                }
+            }
+        }
+        if (body != null) {
+            document.add(new TextField(BODY, body, Field.Store.NO));
+        }
+
+        try {
+            writer.updateDocument(new Term(KEY, key), document);
+            dirty = true;
+            updates.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to index " + key + ": " + e.getMessage());
+        }
+    }
+
+    // Any of the query's words in any field; null if there are none
+    private Query buildQuery(String text, String type) throws IOException {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder matches = new BooleanQuery.Builder();
+        for (Map.Entry<String, Float> field : FIELD_BOOSTS.entrySet()) {
+            for (int i = 0; i < terms.size(); i++) {
+                Term term = new Term(field.getKey(), terms.get(i));
+                Query termQuery = new TermQuery(term);
+                // The last word may not be finished yet
+                if (i == terms.size() - 1 && term.text().length() > 1) {
+                    termQuery = new BooleanQuery.Builder()
+                            .add(new BoostQuery(termQuery, 2f), BooleanClause.Occur.SHOULD)
+                            .add(new PrefixQuery(term), BooleanClause.Occur.SHOULD)
+                            .build();
+                }
+                matches.add(new BoostQuery(termQuery, field.getValue()), BooleanClause.Occur.SHOULD);
+            }
+        }
+        if (type == null) {
+            return matches.build();
+        }
+        return new BooleanQuery.Builder()
+                .add(matches.build(), BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(TYPE, type)), BooleanClause.Occur.FILTER)
+                .build();
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream(BODY, text)) {
+            CharTermAttribute termAttribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                String term = termAttribute.toString();
+                if (!terms.contains(term)) {
+                    terms.add(term);
+                }
+            }
+            stream.end();
+        }
+        return terms;
+    }
+
+    private synchronized void commit() {
+        try {
+            dirty = false;
+            writer.setLiveCommitData(Map.of(
+                    GENERATION, String.valueOf(generation.get()),
+                    "rebuiltGeneration", String.valueOf(rebuiltGeneration)).entrySet());
+            writer.commit();
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            System.err.println("Failed to commit the search index: " + e.getMessage());
+        }
+    }
+
+    private static final class Row {
+        final long id;
+        final String key;
+        final String title;
+        final String body;
+
+        Row(long id, String key, String title, String body) {
+            this.id = id;
+            this.key = key;
+            this.title = title;
+            this.body = body;
+        }
+    }
+}
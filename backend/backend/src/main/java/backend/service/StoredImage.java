@@ -0,0 +1,28 @@
+package backend.service;
+
+// Result of storing an uploaded image: its file name and, when the format
+// could be read, the pixel size of the original
+public final class StoredImage {
+
+    private final String filename;
+    private final Integer width;
+    private final Integer height;
+
+    public StoredImage(String filename, Integer width, Integer height) {
+        this.filename = filename;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+}
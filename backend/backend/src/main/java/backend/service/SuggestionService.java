@@ -0,0 +1,190 @@
+package backend.service;
+
+import backend.model.UserProfile;
+import backend.model.UserSuggestion;
+import backend.repostry.SuggestionRefreshRepository;
+import backend.repostry.UserSuggestionRepository;
+import backend.repostry.userRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// "People you may know": users followed by the people a user follows, ranked by how
+// many of them follow the candidate (mutual follows).
+// Each user's best candidates are stored in UserSuggestion, built with one
+// second-degree query the first time they are asked for. Follows and unfollows then
+// adjust the stored counts of the follower and of the follower's own followers, in
+// bounded batches, instead of rebuilding lists. Lists are rebuilt in full once older
+// than the refresh period, which also corrects what the bounded updates missed.
+// Users without second-degree candidates (new users) get the most followed users;
+// their empty list counts as built, so it too waits for the refresh period.
+@Service
+public class SuggestionService {
+
+    @Autowired
+    private UserSuggestionRepository suggestionRepository;
+
+    @Autowired
+    private SuggestionRefreshRepository refreshRepository;
+
+    @Autowired
+    private userRepository userRepository;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private ProfileCacheService profileCacheService;
+
+    @Autowired
+    private FollowGraphIndex followGraphIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Candidates kept per user
+    @Value("${app.suggestions.stored-per-user:100}")
+    private int storedPerUser;
+
+    // Followed users whose own follows are looked at when a list is rebuilt
+    @Value("${app.suggestions.max-followees:1000}")
+    private int maxFollowees;
+
+    // Rows touched by one follow or unfollow
+    @Value("${app.suggestions.max-fan-out:1000}")
+    private int maxFanOut;
+
+    @Value("${app.suggestions.refresh-hours:24}")
+    private long refreshHours;
+
+    @Value("${app.suggestions.popular-refresh-ms:300000}")
+    private long popularRefreshMs;
+
+    private volatile List<Long> popularIds = List.of();
+    private volatile long popularLoadedAt;
+
+    // Up to `limit` suggestions for the user, best first, as {id, fullname, profileImageUrl, mutualCount}
+    public List<Map<String, Object>> getSuggestions(Long userId, int limit) {
+        List<UserSuggestion> stored = storedSuggestions(userId, limit);
+
+        // Candidate id to mutual count; 0 for popular users added as fallback
+        Map<Long, Integer> candidates = new LinkedHashMap<>();
+        for (UserSuggestion suggestion : stored) {
+            // The stored list can lag behind a follow that was just made
+            if (!followService.isFollowing(userId, suggestion.getCandidateId())) {
+                candidates.put(suggestion.getCandidateId(), suggestion.getMutualCount());
+            }
+        }
+        for (Long popularId : popularIds()) {
+            if (candidates.size() >= limit) {
+                break;
+            }
+            if (!popularId.equals(userId) && !followService.isFollowing(userId, popularId)) {
+                candidates.putIfAbsent(popularId, 0);
+            }
+        }
+
+        // Stored counts can lag behind; use the live ones from the follow graph when it is loaded
+        Map<Long, Integer> liveCounts = followGraphIndex.mutualCounts(userId, candidates.keySet());
+        List<Long> ranked = new ArrayList<>(candidates.keySet());
+        if (liveCounts != null) {
+            candidates.putAll(liveCounts);
+            ranked.sort(Comparator.comparing(candidates::get, Comparator.reverseOrder()));
+        }
+
+        List<Map<String, Object>> suggestions = new ArrayList<>();
+        for (UserProfile profile : profileCacheService.findAll(ranked)) {
+            if (suggestions.size() >= limit) {
+                break;
+            }
+            Map<String, Object> userMap = new HashMap<>();
+            userMap.put("id", profile.getId());
+            userMap.put("fullname", profile.getFullname());
+            userMap.put("profileImageUrl", profile.getProfileImageUrl());
+            userMap.put("mutualCount", candidates.get(profile.getId()));
+            suggestions.add(userMap);
+        }
+        return suggestions;
+    }
+
+    // followerId started following followeeId; call once the follow is committed
+    @Async
+    @Transactional
+    public void onFollow(Long followerId, Long followeeId) {
+        if (refreshRepository.existsById(followerId)) {
+            suggestionRepository.deleteSuggestion(followerId, followeeId);
+            suggestionRepository.addMutualsOfFollowee(followerId, followeeId, maxFanOut);
+            trim(followerId);
+        }
+        // For the follower's followers, followeeId is now one more mutual away
+        suggestionRepository.addMutualForFollowers(followerId, followeeId, maxFanOut);
+    }
+
+    // followerId stopped following followeeId
+    @Async
+    @Transactional
+    public void onUnfollow(Long followerId, Long followeeId) {
+        if (refreshRepository.existsById(followerId)) {
+            suggestionRepository.removeMutualsOfFollowee(followerId, followeeId);
+            suggestionRepository.deleteEmptyForUser(followerId);
+            // The user just unfollowed may still be followed by people followerId follows
+            suggestionRepository.insertCandidate(followerId, followeeId);
+        }
+        suggestionRepository.removeMutualForFollowers(followerId, followeeId);
+        suggestionRepository.deleteEmptyForCandidate(followeeId);
+    }
+
+    // Stored suggestions, rebuilding the list first when it is missing or old
+    private List<UserSuggestion> storedSuggestions(Long userId, int limit) {
+        LocalDateTime computedAt = refreshRepository.findComputedAt(userId);
+        if (computedAt == null || computedAt.isBefore(LocalDateTime.now().minusHours(refreshHours))) {
+            try {
+                rebuild(userId);
+            } catch (DataAccessException e) {
+                // Usually a concurrent rebuild of the same list; serve what is stored
+                System.err.println("Failed to rebuild suggestions for user " + userId + ": " + e.getMessage());
+            }
+        }
+        return suggestionRepository.findByUserIdOrderByMutualCountDescCandidateIdAsc(
+                userId, PageRequest.of(0, limit));
+    }
+
+    private void rebuild(Long userId) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            suggestionRepository.deleteByUser(userId);
+            suggestionRepository.insertSecondDegree(userId, maxFollowees, storedPerUser);
+            refreshRepository.markRebuilt(userId);
+        });
+    }
+
+    private void trim(Long userId) {
+        long excess = suggestionRepository.countByUserId(userId) - storedPerUser;
+        if (excess > 0) {
+            suggestionRepository.deleteWeakest(userId, (int) excess);
+        }
+    }
+
+    // Most followed users, reloaded every few minutes
+    private List<Long> popularIds() {
+        long now = System.currentTimeMillis();
+        if (now - popularLoadedAt > popularRefreshMs) {
+            popularIds = userRepository.findMostFollowedIds(PageRequest.of(0, storedPerUser));
+            popularLoadedAt = now;
+        }
+        return popularIds;
+    }
+}
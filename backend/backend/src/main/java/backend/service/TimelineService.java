@@ -0,0 +1,180 @@
+package backend.service;
+
+import backend.model.PostModel;
+import backend.model.TimelineEntry;
+import backend.model.userModel;
+import backend.repostry.FollowRepository;
+import backend.repostry.PostRepository;
+import backend.repostry.TimelineRepository;
+import backend.repostry.userRepository;
+import backend.util.FeedCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Per-user home timelines.
+// New posts are pushed (fanned out) onto the timelines of the author's followers.
+// Authors with very many followers are skipped at write time; their posts are
+// pulled in when a follower reads the timeline instead.
+@Service
+public class TimelineService {
+
+    private static final int FAN_OUT_BATCH_SIZE = 500;
+
+    private static final Comparator<PostModel> NEWEST_FIRST = Comparator
+            .comparing(PostModel::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(PostModel::getId, Comparator.reverseOrder());
+
+    @Autowired
+    private TimelineRepository timelineRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private userRepository userRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.timeline.max-size:800}")
+    private int maxTimelineSize;
+
+    @Value("${app.timeline.fan-out-threshold:10000}")
+    private int fanOutThreshold;
+
+    // Push a newly created post onto the author's and their followers' timelines
+    @Async
+    @Transactional
+    public void fanOut(PostModel post) {
+        if (post.getUserId() == null || post.getId() == null) {
+            return;
+        }
+
+        List<TimelineEntry> batch = new ArrayList<>();
+        batch.add(entryFor(post.getUserId(), post));
+
+        userModel author = findUser(post.getUserId());
+        // Popular authors are pulled at read time instead
+        if (author != null && author.getFollowerCount() < fanOutThreshold) {
+            for (Long followerId : followRepository.findFollowerIds(author.getId())) {
+                batch.add(entryFor(followerId.toString(), post));
+                if (batch.size() >= FAN_OUT_BATCH_SIZE) {
+                    timelineRepository.saveAll(batch);
+                    batch.clear();
+                }
+            }
+        }
+
+        timelineRepository.saveAll(batch);
+    }
+
+    // Remove a deleted post from every timeline it was pushed to
+    @Transactional
+    public void removePost(PostModel post) {
+        timelineRepository.deleteByPostId(post.getId());
+    }
+
+    // Read up to `limit` posts of a user's timeline after the given cursor, newest first
+    @Transactional(readOnly = true)
+    public List<PostModel> getTimelinePage(String userId, FeedCursor after, int limit) {
+        Pageable page = PageRequest.of(0, limit);
+
+        List<TimelineEntry> entries = after == null
+                ? timelineRepository.findByOwnerIdOrderByCreatedAtDescPostIdDesc(userId, page)
+                : timelineRepository.findPageAfter(userId, after.getCreatedAt(), after.getId(), page);
+
+        List<Long> postIds = entries.stream().map(TimelineEntry::getPostId).collect(Collectors.toList());
+        Map<Long, PostModel> posts = postRepository.findAllById(postIds).stream()
+                .collect(Collectors.toMap(PostModel::getId, Function.identity()));
+
+        // Merge with posts pulled from popular authors that were never fanned out
+        Map<Long, PostModel> merged = new LinkedHashMap<>();
+        for (Long postId : postIds) {
+            PostModel post = posts.get(postId);
+            if (post != null) {
+                merged.put(postId, post);
+            }
+        }
+        for (PostModel post : pullFromPopularAuthors(userId, after, page)) {
+            merged.putIfAbsent(post.getId(), post);
+        }
+
+        return merged.values().stream()
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    // Keep every timeline bounded to the configured number of entries.
+    // Each timeline is trimmed in its own short transaction, so a large backlog
+    // never holds locks on many owners' rows at once.
+    @Scheduled(fixedDelayString = "${app.timeline.trim-interval-ms:600000}")
+    public void trimTimelines() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (String ownerId : timelineRepository.findOwnersLargerThan(maxTimelineSize)) {
+            transaction.executeWithoutResult(status -> trimTimeline(ownerId));
+        }
+    }
+
+    private void trimTimeline(String ownerId) {
+        // The first entry past the limit marks where the timeline is cut
+        List<TimelineEntry> boundary = timelineRepository.findByOwnerIdOrderByCreatedAtDescPostIdDesc(
+                ownerId, PageRequest.of(maxTimelineSize, 1));
+        if (!boundary.isEmpty()) {
+            TimelineEntry cut = boundary.get(0);
+            timelineRepository.deleteOlderThan(ownerId, cut.getCreatedAt(), cut.getPostId());
+        }
+    }
+
+    private List<PostModel> pullFromPopularAuthors(String userId, FeedCursor after, Pageable page) {
+        Long id;
+        try {
+            id = Long.parseLong(userId);
+        } catch (NumberFormatException e) {
+            return List.of();
+        }
+
+        List<String> popularAuthors = followRepository.findFolloweeIdsWithFollowersAtLeast(id, fanOutThreshold)
+                .stream()
+                .map(String::valueOf)
+                .collect(Collectors.toList());
+        if (popularAuthors.isEmpty()) {
+            return List.of();
+        }
+
+        return after == null
+                ? postRepository.findByAuthorsNewestFirst(popularAuthors, page)
+                : postRepository.findByAuthorsPageAfter(popularAuthors, after.getCreatedAt(), after.getId(), page);
+    }
+
+    private userModel findUser(String userId) {
+        try {
+            return userRepository.findById(Long.parseLong(userId)).orElse(null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private TimelineEntry entryFor(String ownerId, PostModel post) {
+        return new TimelineEntry(ownerId, post.getId(), post.getUserId(), post.getCreatedAt());
+    }
+}
@@ -0,0 +1,292 @@
+package backend.service;
+
+import backend.repostry.MediaBlobRepository;
+import backend.storage.BlobStore;
+import backend.storage.StoredBlob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Deletes uploaded files that no post, community post, community, profile or
+// inventory item refers to any more: replaced images, uploads whose form was never
+// submitted, and images of deleted rows. Requests only drop references; this job
+// does all file deletion.
+// The work is split into units (the blob store, each old category directory and
+// the upload root) and every run checks one batch of one unit, continuing after
+// the last name it saw, so a full pass is spread over many short runs. Files
+// younger than the grace period are skipped, which covers uploads whose row has
+// not been saved yet.
+@Service
+public class UploadCleanupService {
+
+    @Autowired
+    private UploadService uploadService;
+
+    @Autowired
+    private ImageDerivativeService derivativeService;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.upload.cleanup.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.upload.cleanup.grace-hours:24}")
+    private long graceHours;
+
+    // Units of the current pass and the position inside the current unit
+    private List<Unit> units = List.of();
+    private int unitIndex;
+    private String cursor;
+
+    private final AtomicLong filesScanned = new AtomicLong();
+    private final AtomicLong filesDeleted = new AtomicLong();
+    private final AtomicLong bytesReclaimed = new AtomicLong();
+    private final AtomicLong passesCompleted = new AtomicLong();
+    private volatile Instant lastPassCompletedAt;
+
+    @Scheduled(initialDelayString = "${app.upload.cleanup.interval-ms:10000}",
+               fixedDelayString = "${app.upload.cleanup.interval-ms:10000}")
+    public synchronized void sweep() {
+        try {
+            if (unitIndex >= units.size()) {
+                if (!units.isEmpty()) {
+                    passesCompleted.incrementAndGet();
+                    lastPassCompletedAt = Instant.now();
+                }
+                units = listUnits();
+                unitIndex = 0;
+                cursor = null;
+                if (units.isEmpty()) {
+                    return;
+                }
+            }
+            if (sweepBatch(units.get(unitIndex))) {
+                unitIndex++;
+                cursor = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Move on to the next unit on the following run
+            System.err.println("Upload cleanup failed: " + e.getMessage());
+            unitIndex++;
+            cursor = null;
+        }
+    }
+
+    // Counters since startup
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("filesScanned", filesScanned.get());
+        stats.put("filesDeleted", filesDeleted.get());
+        stats.put("bytesReclaimed", bytesReclaimed.get());
+        stats.put("passesCompleted", passesCompleted.get());
+        stats.put("lastPassCompletedAt", lastPassCompletedAt);
+        stats.put("currentUnit", unitIndex < units.size() ? String.valueOf(units.get(unitIndex).directory) : null);
+        return stats;
+    }
+
+    // Check the next batch of the unit; returns true once the unit is finished
+    private boolean sweepBatch(Unit unit) throws IOException {
+        return unit.directory == null ? sweepBlobs() : sweepDirectory(unit);
+    }
+
+    private boolean sweepBlobs() throws IOException {
+        List<StoredBlob> batch = blobStore.list(cursor, batchSize);
+        if (batch.isEmpty()) {
+            return true;
+        }
+        cursor = batch.get(batch.size() - 1).getKey();
+        filesScanned.addAndGet(batch.size());
+
+        Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+        Set<String> listed = batch.stream().map(StoredBlob::getKey).collect(Collectors.toSet());
+        List<String> originals = new ArrayList<>();
+        for (StoredBlob blob : batch) {
+            if (!blob.getLastModified().isBefore(cutoff)) {
+                continue;
+            }
+            String original = derivativeService.originalName(blob.getKey());
+            if (original == null) {
+                originals.add(blob.getKey());
+            } else if (!listed.contains(original) && !blobStore.exists(original)) {
+                // Left behind by an original deleted before its derivatives
+                reclaim(blobStore.delete(blob.getKey()));
+            }
+        }
+
+        // Blobs are not tied to a category, so any column may refer to them
+        Set<String> referenced = findReferenced(ImageReferenceColumn.ALL, originals);
+        LocalDateTime blobCutoff = LocalDateTime.now().minusHours(graceHours);
+        for (String key : originals) {
+            if (referenced.contains(key) || !uploadService.isContentAddressed(key)) {
+                continue;
+            }
+            String hash = key.substring(0, key.indexOf('.'));
+            Long bytes = deleteUnusedBlob(hash, key, blobCutoff);
+            if (bytes == null) {
+                continue;
+            }
+            reclaim(bytes);
+            bytesReclaimed.addAndGet(derivativeService.deleteDerivatives(key));
+        }
+        return batch.size() < batchSize;
+    }
+
+    // Files stored before content addressing, in one local directory
+    private boolean sweepDirectory(Unit unit) throws IOException {
+        if (!Files.isDirectory(unit.directory)) {
+            return true;
+        }
+        List<Path> batch;
+        try (Stream<Path> files = Files.list(unit.directory)) {
+            batch = files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> cursor == null || file.getFileName().toString().compareTo(cursor) > 0)
+                    .sorted()
+                    .limit(batchSize)
+                    .collect(Collectors.toList());
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+        cursor = batch.get(batch.size() - 1).getFileName().toString();
+        filesScanned.addAndGet(batch.size());
+
+        FileTime cutoff = FileTime.from(Instant.now().minus(Duration.ofHours(graceHours)));
+        List<String> originals = new ArrayList<>();
+        for (Path file : batch) {
+            if (Files.getLastModifiedTime(file).compareTo(cutoff) >= 0) {
+                continue;
+            }
+            Path original = derivativeService.originalOf(file);
+            if (derivativeService.isTemporaryFile(file) || (original != null && !Files.exists(original))) {
+                // Interrupted write, or a derivative whose original is gone
+                delete(file);
+            } else if (original == null) {
+                originals.add(file.getFileName().toString());
+            }
+        }
+
+        Set<String> referenced = findReferenced(unit.columns, originals);
+        for (String name : originals) {
+            if (!referenced.contains(name)) {
+                Path original = unit.directory.resolve(name);
+                delete(original);
+                bytesReclaimed.addAndGet(derivativeService.deleteDerivatives(original));
+            }
+        }
+        return batch.size() < batchSize;
+    }
+
+    // The given file names that some row still refers to
+    private Set<String> findReferenced(List<ImageReferenceColumn> columns, List<String> names) {
+        if (names.isEmpty()) {
+            return Collections.emptySet();
+        }
+        String placeholders = String.join(",", Collections.nCopies(names.size(), "?"));
+        Set<String> referenced = new HashSet<>();
+        for (ImageReferenceColumn column : columns) {
+            referenced.addAll(jdbcTemplate.queryForList(
+                    "SELECT DISTINCT " + column.getImageColumn() + " FROM " + column.getTable()
+                            + " WHERE " + column.getImageColumn() + " IN (" + placeholders + ")",
+                    String.class, names.toArray()));
+        }
+        return referenced;
+    }
+
+    private void delete(Path file) {
+        try {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                reclaim(size);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to delete upload " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Deletes the file while its media_blob row is locked, so an upload of the same
+    // bytes either takes its reference first (and the blob is kept) or waits, finds
+    // the file gone and writes it again. Returns the bytes freed, or null if the
+    // blob is referenced or was referenced recently.
+    private Long deleteUnusedBlob(String hash, String key, LocalDateTime cutoff) throws IOException {
+        try {
+            return new TransactionTemplate(transactionManager).execute(status -> {
+                boolean hasRow = mediaBlobRepository.findLockedByHash(hash).isPresent();
+                if (hasRow && mediaBlobRepository.deleteIfIdleSince(hash, cutoff) == 0) {
+                    return null;
+                }
+                try {
+                    return blobStore.delete(key);
+                } catch (IOException e) {
+                    // Rolls back the row delete
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void reclaim(long bytes) {
+        if (bytes > 0) {
+            filesDeleted.incrementAndGet();
+            bytesReclaimed.addAndGet(bytes);
+        }
+    }
+
+    // The blob store first, then the old category directories and the upload root
+    private List<Unit> listUnits() {
+        List<Unit> list = new ArrayList<>();
+        list.add(new Unit(null, ImageReferenceColumn.ALL));
+        for (String category : UploadService.CATEGORIES) {
+            list.add(new Unit(uploadService.categoryDirectory(category), ImageReferenceColumn.forCategory(category)));
+        }
+        list.add(new Unit(uploadService.categoryDirectory(UploadService.INVENTORY),
+                ImageReferenceColumn.forCategory(UploadService.INVENTORY)));
+        return list;
+    }
+
+    // A local directory of old files, or the blob store when directory is null
+    private static final class Unit {
+        private final Path directory;
+        private final List<ImageReferenceColumn> columns;
+
+        private Unit(Path directory, List<ImageReferenceColumn> columns) {
+            this.directory = directory;
+            this.columns = columns;
+        }
+    }
+}
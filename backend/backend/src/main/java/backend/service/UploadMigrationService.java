@@ -0,0 +1,167 @@
+package backend.service;
+
+import backend.exception.InvalidUploadException;
+import backend.storage.BlobStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Moves uploads stored before content addressing, before sharding, or before a
+// remote blob store was configured into the current BlobStore. Started with
+// --migrate-uploads; it runs in the background while the application keeps
+// serving. Rows are walked in id order in small batches and each
+// reference is swapped with a conditional UPDATE, so an image changed by a user in
+// the meantime is left alone. Old files are removed by UploadCleanupService once
+// nothing refers to them any more.
+@Service
+public class UploadMigrationService implements ApplicationRunner {
+
+    public static final String OPTION = "migrate-uploads";
+
+    @Autowired
+    private UploadService uploadService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.upload.migration.batch-size:200}")
+    private int batchSize;
+
+    // Pause between batches to keep the load on the database and disk low
+    @Value("${app.upload.migration.pause-ms:100}")
+    private long pauseMs;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPTION)) {
+            Thread worker = new Thread(this::migrate, "upload-migration");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void migrate() {
+        System.out.println("Upload migration started");
+        try {
+            int moved = moveLocalBlobs();
+            System.out.println("Moved " + moved + " local blobs into the blob store");
+            for (ImageReferenceColumn column : ImageReferenceColumn.ALL) {
+                migrateColumn(column.getTable(), column.getIdColumn(), column.getImageColumn(), column.getCategory());
+            }
+            System.out.println("Upload migration finished");
+        } catch (Exception e) {
+            System.err.println("Upload migration stopped: " + e.getMessage());
+        }
+    }
+
+    // Blobs written to the local disk before sharding, or before a remote store was configured
+    private int moveLocalBlobs() throws IOException {
+        Path blobs = uploadService.localBlobsDirectory();
+        if (!Files.isDirectory(blobs)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(blobs, 3)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> isHashPrefixed(file.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+        int moved = 0;
+        for (Path file : files) {
+            String key = file.getFileName().toString();
+            Path sharded = blobs.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+            if (file.equals(sharded) && file.equals(blobStore.localPath(key))) {
+                // Already where the store keeps it
+                continue;
+            }
+            blobStore.put(key, file);
+            moved++;
+        }
+        return moved;
+    }
+
+    private void migrateColumn(String table, String idColumn, String imageColumn, String category)
+            throws InterruptedException {
+        String select = "SELECT " + idColumn + " AS id, " + imageColumn + " AS image FROM " + table
+                + " WHERE " + idColumn + " > ? AND " + imageColumn + " IS NOT NULL AND " + imageColumn + " <> ''"
+                + " ORDER BY " + idColumn + " LIMIT ?";
+        String update = "UPDATE " + table + " SET " + imageColumn + " = ? WHERE " + idColumn + " = ? AND "
+                + imageColumn + " = ?";
+
+        long lastId = 0;
+        int migrated = 0;
+        int skipped = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(select, lastId, batchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("id")).longValue();
+                String image = (String) row.get("image");
+                if (uploadService.isContentAddressed(image)) {
+                    continue;
+                }
+
+                Path legacy;
+                try {
+                    legacy = uploadService.resolve(category, image);
+                } catch (InvalidUploadException e) {
+                    legacy = null;
+                }
+                if (legacy == null || !Files.isRegularFile(legacy)) {
+                    skipped++;
+                    continue;
+                }
+
+                String stored;
+                try {
+                    stored = uploadService.importLegacyFile(legacy).getFilename();
+                } catch (IOException | InvalidUploadException e) {
+                    System.err.println("Skipping " + table + " " + lastId + " (" + image + "): " + e.getMessage());
+                    skipped++;
+                    continue;
+                }
+
+                if (jdbcTemplate.update(update, stored, lastId, image) == 0) {
+                    // Changed since it was read; the new reference is not needed
+                    uploadService.release(category, stored);
+                    continue;
+                }
+                migrated++;
+            }
+            if (pauseMs > 0) {
+                Thread.sleep(pauseMs);
+            }
+        }
+        System.out.println("Migrated " + migrated + " images in " + table + "." + imageColumn
+                + (skipped > 0 ? " (" + skipped + " missing or unreadable skipped)" : ""));
+    }
+
+    private static boolean isHashPrefixed(String name) {
+        if (name.length() < 64) {
+            return false;
+        }
+        for (int i = 0; i < 64; i++) {
+            char c = name.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
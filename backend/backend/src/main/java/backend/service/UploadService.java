@@ -0,0 +1,272 @@
+package backend.service;
+
+import backend.exception.InvalidUploadException;
+import backend.model.MediaBlob;
+import backend.repostry.MediaBlobRepository;
+import backend.storage.BlobStore;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Stores uploaded images for posts, profiles and communities.
+// The type is taken from the file's first bytes rather than its name or the
+// Content-Type header, and anything that is not a supported image or is over the
+// size limit is rejected before it is written. The upload directories are created
+// once at startup instead of on every request. Resized copies are created in the
+// background by ImageDerivativeService.
+//
+// Images are content-addressed: each is stored once in the BlobStore (local disk
+// or S3) under the SHA-256 of its bytes, whatever category it was uploaded for.
+// Uploading bytes that are already stored only adds a reference, and
+// UploadCleanupService deletes the blob once no post, profile, community or
+// inventory item uses it. Files uploaded before this scheme stay in their local
+// category directories (inventory images directly in the upload directory) until
+// UploadMigrationService moves them.
+@Service
+public class UploadService {
+
+    public static final String POSTS = "posts";
+    public static final String PROFILES = "profiles";
+    public static final String COMMUNITIES = "communities";
+    public static final String COMMUNITY_POSTS = "community-posts";
+
+    public static final List<String> CATEGORIES = List.of(POSTS, PROFILES, COMMUNITIES, COMMUNITY_POSTS);
+
+    // Inventory images are served from /uploads/{file}; their old files live in the upload root
+    public static final String INVENTORY = "inventory";
+
+    // Enough to recognise every supported format
+    private static final int SIGNATURE_LENGTH = 12;
+
+    // Directory of the local blob store under the upload directory
+    public static final String BLOBS = "blobs";
+
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z]+");
+
+    @Autowired
+    private ImageDerivativeService derivativeService;
+
+    @Autowired
+    private MediaBlobRepository mediaBlobRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${app.upload.dir:./uploads}")
+    private String uploadDir;
+
+    @Value("${app.upload.staging-dir:./uploads-staging}")
+    private String stagingDir;
+
+    @Value("${app.upload.max-image-bytes:10485760}")
+    private long maxImageBytes;
+
+    private Path root;
+
+    private Path staging;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        for (String category : CATEGORIES) {
+            Files.createDirectories(root.resolve(category));
+        }
+        staging = Paths.get(stagingDir).toAbsolutePath().normalize();
+        Files.createDirectories(staging);
+    }
+
+    // Validate and store an image, returning the file name it was stored under and its size
+    public StoredImage storeImage(MultipartFile file, String category) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new InvalidUploadException("No file was uploaded");
+        }
+        if (file.getSize() > maxImageBytes) {
+            throw new InvalidUploadException("Image is larger than " + maxImageBytes + " bytes");
+        }
+        // A part spooled to the staging directory is renamed into place; a small
+        // in-memory part is written out directly
+        return store(file, file.getSize(), file::transferTo);
+    }
+
+    // Add a file stored under the old naming scheme to the blob store, returning its new name.
+    // The old file is left in place until UploadCleanupService finds nothing refers to it.
+    public StoredImage importLegacyFile(Path legacy) throws IOException {
+        return store(new FileSystemResource(legacy), Files.size(legacy), target -> {
+            try {
+                // Same disk: a hard link shares the bytes instead of copying them
+                Files.createLink(target, legacy);
+            } catch (FileAlreadyExistsException e) {
+                throw e;
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(legacy, target);
+            }
+        });
+    }
+
+    // Store a file that was received in chunks, moving it out of the staging directory
+    public StoredImage storeReceivedFile(Path file) throws IOException {
+        return store(new FileSystemResource(file), Files.size(file),
+                target -> Files.move(file, target, StandardCopyOption.REPLACE_EXISTING));
+    }
+
+    private StoredImage store(InputStreamSource source, long sizeBytes, BlobWriter writer) throws IOException {
+        // One read of the content both checks the format and computes the hash
+        MessageDigest digest = sha256();
+        String extension;
+        try (InputStream in = source.getInputStream()) {
+            byte[] head = in.readNBytes(SIGNATURE_LENGTH);
+            extension = imageExtension(head);
+            if (extension == null) {
+                throw new InvalidUploadException("Only JPEG, PNG, GIF and WebP images can be uploaded");
+            }
+            digest.update(head);
+            byte[] buffer = new byte[64 * 1024];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        String hash = HexFormat.of().formatHex(digest.digest());
+        String filename = hash + "." + extension;
+
+        MediaBlob existing = mediaBlobRepository.findById(hash).orElse(null);
+        boolean referenced = false;
+        if (existing != null && blobStore.exists(filename)) {
+            // Same bytes are already stored: take a reference and skip the write
+            mediaBlobRepository.addReference(hash, extension, sizeBytes, existing.getWidth(), existing.getHeight());
+            // The cleanup may have deleted the file before the reference was taken;
+            // the reference now keeps it, so write the file again if it is gone
+            if (blobStore.exists(filename)) {
+                return new StoredImage(filename, existing.getWidth(), existing.getHeight());
+            }
+            referenced = true;
+        }
+
+        // Written out next to the spooled parts, measured, then handed to the blob store
+        Path staged = Files.createTempFile(staging, "upload-", "." + extension);
+        Integer width;
+        Integer height;
+        try {
+            Files.delete(staged);
+            writer.writeTo(staged);
+            int[] size = derivativeService.readSize(staged);
+            width = size == null ? null : size[0];
+            height = size == null ? null : size[1];
+            blobStore.put(filename, staged);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+
+        if (!referenced) {
+            mediaBlobRepository.addReference(hash, extension, sizeBytes, width, height);
+        }
+        derivativeService.generate(filename);
+        return new StoredImage(filename, width, height);
+    }
+
+    // The file to send for a request asking for the given width (0 for the original),
+    // for images stored before content addressing
+    public Path resolveForWidth(String category, String filename, int width) {
+        Path original = resolve(category, filename);
+        return width > 0 ? derivativeService.select(original, width) : original;
+    }
+
+    // The blob to send for a request asking for the given width (0 for the original)
+    public String blobKeyForWidth(String filename, int width) {
+        return width > 0 ? derivativeService.selectKey(filename, width) : filename;
+    }
+
+    // Content-addressed files never change under the same name and live in the blob store
+    public boolean isContentAddressed(String filename) {
+        return BLOB_NAME.matcher(filename).matches();
+    }
+
+    // Location of a file stored before content addressing, refusing names that would
+    // escape the category directory
+    public Path resolve(String category, String filename) {
+        Path directory = categoryDirectory(category);
+        Path path = directory.resolve(filename).normalize();
+        if (!path.getParent().equals(directory)) {
+            throw new InvalidUploadException("Invalid file name: " + filename);
+        }
+        return path;
+    }
+
+    // Drop one reference to a stored image. Files are never deleted here: UploadCleanupService
+    // removes them in the background once no post, profile, community or item refers to them.
+    public void release(String category, String filename) {
+        if (filename == null || !BLOB_NAME.matcher(filename).matches()) {
+            return;
+        }
+        mediaBlobRepository.removeReference(filename.substring(0, filename.indexOf('.')));
+    }
+
+    // Where files of a category were stored before content addressing
+    public Path categoryDirectory(String category) {
+        return INVENTORY.equals(category) ? root : root.resolve(category);
+    }
+
+    // Where blobs were kept on this machine before the blob store was configurable
+    public Path localBlobsDirectory() {
+        return root.resolve(BLOBS);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // File extension for the image format the signature belongs to, or null
+    private static String imageExtension(byte[] head) {
+        if (startsWith(head, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (startsWith(head, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (startsWith(head, 'G', 'I', 'F', '8')) {
+            return "gif";
+        }
+        if (startsWith(head, 'R', 'I', 'F', 'F') && head.length >= 12
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, int... signature) {
+        if (head.length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private interface BlobWriter {
+        void writeTo(Path target) throws IOException;
+    }
+}
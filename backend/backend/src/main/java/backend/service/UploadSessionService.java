@@ -0,0 +1,255 @@
+package backend.service;
+
+import backend.exception.InvalidUploadException;
+import backend.exception.UploadOffsetMismatchException;
+import backend.model.UploadSession;
+import backend.repostry.UploadSessionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+// Resumable uploads: a client starts a session, sends the file in chunks of at most
+// chunkSize bytes, each with its SHA-256, and commits it once all bytes are there.
+// A dropped connection only loses the chunk in flight; the client asks for the
+// session's offset and continues. Each chunk is a short request, so no servlet
+// thread is held for the whole transfer. Committing stores the file like a normal
+// upload and keeps it under the upload id until a post claims it. Sessions that are
+// neither finished nor claimed expire after the configured time.
+// Received bytes are kept in the staging directory of the instance that started
+// the session, so its chunks have to reach that instance.
+@Service
+public class UploadSessionService {
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private UploadService uploadService;
+
+    @Value("${app.upload.staging-dir:./uploads-staging}")
+    private String stagingDir;
+
+    @Value("${app.upload.sessions.chunk-size:1048576}")
+    private int chunkSize;
+
+    @Value("${app.upload.sessions.max-bytes:52428800}")
+    private long maxBytes;
+
+    @Value("${app.upload.sessions.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private Path directory;
+
+    // Chunks of one session are written one at a time; sessions share a fixed set of locks
+    private final Object[] locks = new Object[64];
+
+    @PostConstruct
+    void init() throws IOException {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        directory = Paths.get(stagingDir).toAbsolutePath().normalize().resolve("sessions");
+        Files.createDirectories(directory);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public UploadSession start(String category, long totalBytes, String sha256) throws IOException {
+        if (!UploadService.CATEGORIES.contains(category) && !UploadService.INVENTORY.equals(category)) {
+            throw new InvalidUploadException("Unknown upload category: " + category);
+        }
+        if (totalBytes <= 0 || totalBytes > maxBytes) {
+            throw new InvalidUploadException("Upload size must be between 1 and " + maxBytes + " bytes");
+        }
+        if (sha256 != null && !sha256.matches("[0-9a-fA-F]{64}")) {
+            throw new InvalidUploadException("sha256 must be 64 hex digits");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setCategory(category);
+        session.setTotalBytes(totalBytes);
+        session.setReceivedBytes(0);
+        session.setSha256(sha256 == null ? null : sha256.toLowerCase());
+        session.setStatus(UploadSession.OPEN);
+        session.setCreatedAt(LocalDateTime.now());
+        session.setExpiresAt(LocalDateTime.now().plusMinutes(ttlMinutes));
+        Files.deleteIfExists(partFile(session.getId()));
+        Files.createFile(partFile(session.getId()));
+        return uploadSessionRepository.save(session);
+    }
+
+    public UploadSession find(String id) {
+        return uploadSessionRepository.findById(id).orElse(null);
+    }
+
+    // Append a chunk starting at `offset`; returns the offset of the next chunk
+    public long appendChunk(String id, long offset, String sha256, InputStream body) throws IOException {
+        if (sha256 == null || !sha256.matches("[0-9a-fA-F]{64}")) {
+            throw new InvalidUploadException("Each chunk needs its SHA-256 as 64 hex digits");
+        }
+        synchronized (lock(id)) {
+            UploadSession session = openSession(id);
+            if (offset != session.getReceivedBytes()) {
+                throw new UploadOffsetMismatchException(session.getReceivedBytes());
+            }
+            long limit = Math.min(chunkSize, session.getTotalBytes() - offset);
+
+            MessageDigest digest = sha256();
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(partFile(id), StandardOpenOption.WRITE)) {
+                // Drop anything left from a chunk that failed half-way
+                channel.truncate(offset);
+                channel.position(offset);
+                byte[] buffer = new byte[64 * 1024];
+                for (int read; (read = body.read(buffer)) != -1; ) {
+                    written += read;
+                    if (written > limit) {
+                        channel.truncate(offset);
+                        throw new InvalidUploadException("Chunk is larger than " + limit + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    channel.write(ByteBuffer.wrap(buffer, 0, read));
+                }
+                if (written == 0 || !HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(sha256)) {
+                    channel.truncate(offset);
+                    throw new InvalidUploadException("Chunk checksum does not match");
+                }
+            }
+
+            session.setReceivedBytes(offset + written);
+            session.setExpiresAt(LocalDateTime.now().plusMinutes(ttlMinutes));
+            uploadSessionRepository.save(session);
+            return session.getReceivedBytes();
+        }
+    }
+
+    // Store the received file; the result is kept under the upload id until claimed
+    public UploadSession commit(String id) throws IOException {
+        synchronized (lock(id)) {
+            UploadSession session = uploadSessionRepository.findById(id)
+                    .orElseThrow(() -> new InvalidUploadException("Upload session not found: " + id));
+            if (UploadSession.COMMITTED.equals(session.getStatus())) {
+                // Commit retried after a lost response
+                return session;
+            }
+            if (session.getReceivedBytes() != session.getTotalBytes()) {
+                throw new InvalidUploadException("Upload is incomplete: " + session.getReceivedBytes()
+                        + " of " + session.getTotalBytes() + " bytes received");
+            }
+
+            StoredImage image;
+            try {
+                image = uploadService.storeReceivedFile(partFile(id));
+            } catch (InvalidUploadException e) {
+                // Not an image; the session is of no further use
+                discard(session);
+                throw e;
+            }
+            // Blob names are the SHA-256 of the content
+            if (session.getSha256() != null && !image.getFilename().startsWith(session.getSha256() + ".")) {
+                uploadService.release(session.getCategory(), image.getFilename());
+                discard(session);
+                throw new InvalidUploadException("Uploaded file does not match its checksum");
+            }
+
+            session.setStatus(UploadSession.COMMITTED);
+            session.setFilename(image.getFilename());
+            session.setWidth(image.getWidth());
+            session.setHeight(image.getHeight());
+            session.setExpiresAt(LocalDateTime.now().plusMinutes(ttlMinutes));
+            Files.deleteIfExists(partFile(id));
+            return uploadSessionRepository.save(session);
+        }
+    }
+
+    // Take over a committed upload for a post; the caller then owns its reference
+    public StoredImage claim(String id, String category) {
+        UploadSession session = uploadSessionRepository.findById(id).orElse(null);
+        if (session == null || uploadSessionRepository.claimCommitted(id, category) == 0) {
+            throw new InvalidUploadException("No committed " + category + " upload with id " + id);
+        }
+        return new StoredImage(session.getFilename(), session.getWidth(), session.getHeight());
+    }
+
+    public void abort(String id) throws IOException {
+        synchronized (lock(id)) {
+            UploadSession session = uploadSessionRepository.findById(id).orElse(null);
+            if (session != null) {
+                discard(session);
+            }
+        }
+    }
+
+    // Drop sessions that were abandoned, or committed but never used
+    @Scheduled(fixedDelayString = "${app.upload.sessions.expiry-interval-ms:300000}")
+    public void expireSessions() {
+        List<UploadSession> expired;
+        do {
+            expired = uploadSessionRepository.findByExpiresAtBefore(LocalDateTime.now(), PageRequest.of(0, 100));
+            for (UploadSession session : expired) {
+                try {
+                    synchronized (lock(session.getId())) {
+                        discard(session);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Failed to expire upload session " + session.getId() + ": " + e.getMessage());
+                    return;
+                }
+            }
+        } while (expired.size() == 100);
+    }
+
+    private UploadSession openSession(String id) {
+        UploadSession session = uploadSessionRepository.findById(id).orElse(null);
+        if (session == null || !UploadSession.OPEN.equals(session.getStatus())) {
+            throw new InvalidUploadException("No open upload session with id " + id);
+        }
+        return session;
+    }
+
+    private void discard(UploadSession session) throws IOException {
+        // A post may have claimed the upload in the meantime, and owns its reference then
+        if (uploadSessionRepository.deleteSession(session.getId()) == 1
+                && UploadSession.COMMITTED.equals(session.getStatus())) {
+            uploadService.release(session.getCategory(), session.getFilename());
+        }
+        Files.deleteIfExists(partFile(session.getId()));
+    }
+
+    private Object lock(String id) {
+        return locks[Math.floorMod(id.hashCode(), locks.length)];
+    }
+
+    private Path partFile(String id) {
+        return directory.resolve(id + ".part");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
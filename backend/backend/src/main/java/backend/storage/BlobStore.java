@@ -0,0 +1,34 @@
+package backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+// Where content-addressed uploads and their resized copies are kept.
+// Keys are file names ("<sha256>.jpg", "<sha256>_w640.jpg"); a blob is written
+// once and never changes under its key. Which implementation is used is chosen
+// with app.storage.type (see StorageConfig).
+public interface BlobStore {
+
+    // Move a local file into the store; the file no longer exists afterwards
+    void put(String key, Path file) throws IOException;
+
+    boolean exists(String key);
+
+    InputStream open(String key) throws IOException;
+
+    // Local file holding the blob, or null when the store is not on this machine's disk
+    Path localPath(String key);
+
+    // URL clients can read the blob from directly for the given time, or null if
+    // it has to be sent through this application
+    String presignedUrl(String key, Duration validFor);
+
+    // Returns the number of bytes freed, 0 if there was no such blob
+    long delete(String key) throws IOException;
+
+    // Up to `limit` blobs with keys after the given one (null to start at the beginning), in key order
+    List<StoredBlob> list(String afterKey, int limit) throws IOException;
+}
@@ -0,0 +1,145 @@
+package backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Blobs on the local disk, spread over two levels of directories named after the
+// first four characters of the key (blobs/ab/cd/abcd....jpg) so no directory grows
+// past a few hundred entries. Blobs written before sharding, directly in the blobs
+// directory, are still found until UploadMigrationService moves them.
+public class LocalBlobStore implements BlobStore {
+
+    private final Path directory;
+
+    public LocalBlobStore(Path directory) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        Files.createDirectories(this.directory);
+    }
+
+    @Override
+    public void put(String key, Path file) throws IOException {
+        Path target = shardedPath(key);
+        Files.createDirectories(target.getParent());
+        try {
+            // Readers see the whole file or nothing
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Different disk: copy next to the target first, then rename
+            Path temp = Files.createTempFile(target.getParent(), ".blob", ".tmp");
+            try {
+                Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            Files.delete(file);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(path(key));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(path(key));
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return path(key);
+    }
+
+    @Override
+    public String presignedUrl(String key, Duration validFor) {
+        return null;
+    }
+
+    @Override
+    public long delete(String key) throws IOException {
+        Path file = path(key);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long size = Files.size(file);
+        return Files.deleteIfExists(file) ? size : 0;
+    }
+
+    // Walks only the shards at or after the one holding afterKey
+    @Override
+    public List<StoredBlob> list(String afterKey, int limit) throws IOException {
+        List<StoredBlob> blobs = new ArrayList<>();
+        String first = afterKey == null ? null : afterKey.substring(0, 2);
+        for (Path level1 : shardDirectories(directory, first)) {
+            String second = first != null && level1.getFileName().toString().equals(first)
+                    ? afterKey.substring(2, 4)
+                    : null;
+            for (Path level2 : shardDirectories(level1, second)) {
+                for (Path file : sortedFiles(level2)) {
+                    String key = file.getFileName().toString();
+                    if (afterKey != null && key.compareTo(afterKey) <= 0) {
+                        continue;
+                    }
+                    blobs.add(new StoredBlob(key, Files.size(file), Files.getLastModifiedTime(file).toInstant()));
+                    if (blobs.size() >= limit) {
+                        return blobs;
+                    }
+                }
+            }
+        }
+        return blobs;
+    }
+
+    private Path path(String key) {
+        Path sharded = shardedPath(key);
+        if (!Files.exists(sharded)) {
+            Path flat = directory.resolve(key);
+            if (Files.exists(flat)) {
+                return flat;
+            }
+        }
+        return sharded;
+    }
+
+    private Path shardedPath(String key) {
+        if (key.length() < 5 || key.startsWith(".") || key.contains("/") || key.contains("\\")) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static List<Path> shardDirectories(Path parent, String from) throws IOException {
+        if (!Files.isDirectory(parent)) {
+            return List.of();
+        }
+        try (Stream<Path> entries = Files.list(parent)) {
+            return entries
+                    .filter(Files::isDirectory)
+                    .filter(dir -> dir.getFileName().toString().length() == 2)
+                    .filter(dir -> from == null || dir.getFileName().toString().compareTo(from) >= 0)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Skips temporary files of writes still in progress
+    private static List<Path> sortedFiles(Path dir) throws IOException {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
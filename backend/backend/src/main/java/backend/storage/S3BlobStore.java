@@ -0,0 +1,258 @@
+package backend.storage;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Blobs in an S3 bucket, or any service speaking the S3 API (MinIO for local
+// testing). Files larger than one part are sent as a multipart upload, one part
+// read from disk at a time. Clients read blobs straight from the bucket through
+// short-lived presigned URLs, so several application instances can share one store.
+// Existence is always asked of the bucket: another instance may have deleted the
+// object, and callers rely on the answer to decide whether to write it again.
+public class S3BlobStore implements BlobStore, AutoCloseable {
+
+    // Content-addressed objects never change
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final S3Client client;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final String prefix;
+    private final long partSize;
+
+    public S3BlobStore(S3Client client, S3Presigner presigner, String bucket, String prefix, long partSize) {
+        this.client = client;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.prefix = prefix;
+        this.partSize = partSize;
+    }
+
+    @Override
+    public void put(String key, Path file) throws IOException {
+        long size = Files.size(file);
+        if (size <= partSize) {
+            client.putObject(putRequest(key), RequestBody.fromFile(file));
+        } else {
+            putMultipart(key, file, size);
+        }
+        Files.delete(file);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return head(key) != null;
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        try {
+            return client.getObject(request -> request.bucket(bucket).key(objectKey(key)));
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException("Failed to read " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return null;
+    }
+
+    @Override
+    public String presignedUrl(String key, Duration validFor) {
+        return presigner.presignGetObject(request -> request
+                        .signatureDuration(validFor)
+                        .getObjectRequest(get -> get.bucket(bucket).key(objectKey(key))))
+                .url()
+                .toString();
+    }
+
+    @Override
+    public long delete(String key) throws IOException {
+        try {
+            HeadObjectResponse head = head(key);
+            if (head == null) {
+                return 0;
+            }
+            client.deleteObject(request -> request.bucket(bucket).key(objectKey(key)));
+            return head.contentLength();
+        } catch (S3Exception e) {
+            throw new IOException("Failed to delete " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<StoredBlob> list(String afterKey, int limit) throws IOException {
+        ListObjectsV2Request.Builder request = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .maxKeys(limit);
+        if (afterKey != null) {
+            request.startAfter(objectKey(afterKey));
+        }
+        try {
+            List<StoredBlob> blobs = new ArrayList<>();
+            for (S3Object object : client.listObjectsV2(request.build()).contents()) {
+                blobs.add(new StoredBlob(object.key().substring(prefix.length()), object.size(), object.lastModified()));
+            }
+            return blobs;
+        } catch (S3Exception e) {
+            throw new IOException("Failed to list blobs: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        presigner.close();
+        client.close();
+    }
+
+    private void putMultipart(String key, Path file, long size) throws IOException {
+        String uploadId = client.createMultipartUpload(request -> request
+                .bucket(bucket)
+                .key(objectKey(key))
+                .contentType(contentType(key))
+                .cacheControl(CACHE_CONTROL)).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long length = Math.min(partSize, size - offset);
+                long partOffset = offset;
+                int number = partNumber;
+                // The SDK opens the part again if it has to retry it
+                String etag = client.uploadPart(request -> request
+                                .bucket(bucket)
+                                .key(objectKey(key))
+                                .uploadId(uploadId)
+                                .partNumber(number)
+                                .contentLength(length),
+                        RequestBody.fromContentProvider(() -> openPart(file, partOffset, length),
+                                length, contentType(key))).eTag();
+                parts.add(CompletedPart.builder().partNumber(number).eTag(etag).build());
+            }
+            client.completeMultipartUpload(request -> request
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build()));
+        } catch (RuntimeException e) {
+            client.abortMultipartUpload(request -> request.bucket(bucket).key(objectKey(key)).uploadId(uploadId));
+            throw new IOException("Failed to upload " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    private PutObjectRequest putRequest(String key) {
+        return PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey(key))
+                .contentType(contentType(key))
+                .cacheControl(CACHE_CONTROL)
+                .build();
+    }
+
+    // Null if there is no such object
+    private HeadObjectResponse head(String key) {
+        try {
+            return client.headObject(request -> request.bucket(bucket).key(objectKey(key)));
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private String objectKey(String key) {
+        return prefix + key;
+    }
+
+    private static String contentType(String key) {
+        return MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    private static InputStream openPart(Path file, long offset, long length) {
+        try {
+            InputStream in = Files.newInputStream(file);
+            in.skipNBytes(offset);
+            return new LimitedInputStream(in, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Ends after `remaining` bytes of the underlying stream
+    private static final class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
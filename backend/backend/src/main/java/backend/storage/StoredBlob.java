@@ -0,0 +1,29 @@
+package backend.storage;
+
+import java.time.Instant;
+
+// A blob as listed by a BlobStore
+public final class StoredBlob {
+
+    private final String key;
+    private final long size;
+    private final Instant lastModified;
+
+    public StoredBlob(String key, long size, Instant lastModified) {
+        this.key = key;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+}
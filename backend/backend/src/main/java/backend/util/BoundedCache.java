@@ -0,0 +1,93 @@
+package backend.util;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Small in-process cache with a maximum number of entries.
+// Once it grows past the limit, the least recently used tenth is evicted in one go,
+// so the cost of finding them is spread over many inserts. Loading and updating
+// the same key are atomic with respect to each other.
+public final class BoundedCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public BoundedCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    // The cached value, or null if the key is not cached
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.touch();
+    }
+
+    // The cached value, loading it first if needed. Updates to the same key wait for the load.
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(key, k -> new Entry<>(loader.apply(k)));
+            evictIfFull();
+        }
+        return entry.touch();
+    }
+
+    // Cache the value, replacing the one cached for the key, if any
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value));
+        evictIfFull();
+    }
+
+    // Apply an in-place update to a cached value; keys that are not cached are left alone
+    public void ifPresent(K key, Consumer<V> update) {
+        entries.computeIfPresent(key, (k, entry) -> {
+            update.accept(entry.value);
+            return entry;
+        });
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    // Remove the key only while it still maps to this value, so a newer value is kept
+    public void remove(K key, V value) {
+        entries.computeIfPresent(key, (k, entry) -> entry.value == value ? null : entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictIfFull() {
+        int excess = entries.size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+        List<K> coldest = entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                .limit(excess + maxSize / 10)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        coldest.forEach(entries::remove);
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        volatile long lastAccess = System.nanoTime();
+
+        Entry(V value) {
+            this.value = value;
+        }
+
+        V touch() {
+            lastAccess = System.nanoTime();
+            return value;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package backend.controller;
+
+import backend.exception.InvalidUploadException;
+import backend.repostry.PostRepository;
+import backend.repostry.userRepository;
+import backend.service.LikeService;
+import backend.service.NotificationService;
+import backend.service.PostCacheService;
+import backend.service.ProfileCacheService;
+import backend.service.SearchService;
+import backend.service.TimelineService;
+import backend.service.UploadService;
+import backend.service.UploadSessionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A post that names an upload which can't be claimed is rejected as a bad request
+@WebMvcTest(PostController.class)
+class PostControllerUploadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private PostRepository postRepository;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private TimelineService timelineService;
+
+    @MockitoBean
+    private LikeService likeService;
+
+    @MockitoBean
+    private UploadService uploadService;
+
+    @MockitoBean
+    private UploadSessionService uploadSessionService;
+
+    @MockitoBean
+    private PostCacheService postCacheService;
+
+    @MockitoBean
+    private ProfileCacheService profileCacheService;
+
+    @MockitoBean
+    private SearchService searchService;
+
+    @MockitoBean
+    private userRepository userRepository;
+
+    @Test
+    void createPostWithUnknownUploadIsBadRequest() throws Exception {
+        when(uploadSessionService.claim(eq("missing"), any()))
+                .thenThrow(new InvalidUploadException("No committed posts upload with id missing"));
+
+        mockMvc.perform(post("/posts").param("uploadId", "missing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"t\",\"userId\":\"u1\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("No committed posts upload with id missing"));
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void createLearningProgressPostWithUnknownUploadIsBadRequest() throws Exception {
+        when(uploadSessionService.claim(eq("missing"), any()))
+                .thenThrow(new InvalidUploadException("No committed posts upload with id missing"));
+
+        mockMvc.perform(post("/posts/learning-progress").param("uploadId", "missing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"t\",\"userId\":\"u1\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("No committed posts upload with id missing"));
+        verifyNoInteractions(postRepository);
+    }
+}
@@ -0,0 +1,119 @@
+package backend.repostry;
+
+import backend.model.CommunityMemberSummary;
+import backend.model.CommunityMembership;
+import backend.model.FollowEdge;
+import backend.model.UserSummary;
+import backend.model.userModel;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Follower, following and member pages are read with one query each, however
+// many users they hold, and page by id without gaps or repeats
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FollowListQueriesTest {
+
+    private static final int USERS = 30;
+    private static final String COMMUNITY = "community-1";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private CommunityMembershipRepository communityMembershipRepository;
+
+    private Statistics statistics;
+    private Long star;
+    private final List<Long> fans = new ArrayList<>();
+
+    @BeforeEach
+    void createGraph() {
+        star = user("Star").getId();
+        for (int i = 0; i < USERS; i++) {
+            userModel fan = user("Fan " + i);
+            fans.add(fan.getId());
+            entityManager.persist(new FollowEdge(fan.getId(), star));
+            entityManager.persist(new FollowEdge(star, fan.getId()));
+            entityManager.persist(new CommunityMembership(COMMUNITY, fan.getId(), i == 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void followerPagesTakeOneQueryEach() {
+        List<Long> seen = new ArrayList<>();
+        Long afterId = 0L;
+        int pages = 0;
+        List<UserSummary> page;
+        do {
+            page = followRepository.findFollowerSummaries(star, afterId, PageRequest.of(0, 7));
+            page.forEach(summary -> seen.add(summary.getId()));
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+            pages++;
+        } while (page.size() == 7);
+
+        assertEquals(fans, seen);
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void followeePagesTakeOneQueryEachWhateverTheirSize() {
+        List<UserSummary> small = followRepository.findFolloweeSummaries(star, 0L, PageRequest.of(0, 5));
+        long afterSmall = statistics.getPrepareStatementCount();
+        List<UserSummary> large = followRepository.findFolloweeSummaries(star, 0L, PageRequest.of(0, USERS));
+
+        assertEquals(5, small.size());
+        assertEquals(USERS, large.size());
+        assertEquals("Fan 0", large.get(0).getFullname());
+        assertNull(large.get(0).getProfileImageUrl());
+        assertEquals(1, afterSmall);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void memberPagesTakeOneQueryEach() {
+        List<CommunityMemberSummary> first = communityMembershipRepository.findMemberSummaries(COMMUNITY, PageRequest.of(0, 20));
+        List<CommunityMemberSummary> second = communityMembershipRepository.findMemberSummaries(COMMUNITY, PageRequest.of(1, 20));
+
+        assertEquals(20, first.size());
+        assertEquals(USERS - 20, second.size());
+        assertEquals(fans.get(0), first.get(0).getId());
+        assertEquals(true, first.get(0).isModerator());
+        assertEquals(false, second.get(0).isModerator());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private userModel user(String fullname) {
+        userModel user = new userModel();
+        user.setFullname(fullname);
+        user.setEmail(fullname.replace(' ', '.').toLowerCase() + "@example.com");
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,166 @@
+package backend.storage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs S3BlobStore against a MinIO container; skipped when Docker is not available
+@Testcontainers(disabledWithoutDocker = true)
+class S3BlobStoreTest {
+
+    private static final String BUCKET = "snapture-test";
+    private static final String PREFIX = "blobs/";
+    // The smallest part size S3 accepts
+    private static final long PART_SIZE = 5L * 1024 * 1024;
+
+    @Container
+    private static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2024-01-16T16-07-38Z");
+
+    private static S3BlobStore store;
+    private static S3BlobStore otherInstance;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    static void createStores() {
+        try (S3Client client = client()) {
+            client.createBucket(request -> request.bucket(BUCKET));
+        }
+        store = new S3BlobStore(client(), presigner(), BUCKET, PREFIX, PART_SIZE);
+        otherInstance = new S3BlobStore(client(), presigner(), BUCKET, PREFIX, PART_SIZE);
+    }
+
+    @AfterAll
+    static void closeStores() {
+        store.close();
+        otherInstance.close();
+    }
+
+    @Test
+    void putsAndReadsASmallBlob() throws Exception {
+        byte[] content = randomBytes(1024);
+        store.put("small.jpg", write(content));
+
+        assertTrue(store.exists("small.jpg"));
+        try (InputStream in = store.open("small.jpg")) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void putsALargeBlobInParts() throws Exception {
+        byte[] content = randomBytes((int) (PART_SIZE * 2 + 1024 * 1024));
+        Path file = write(content);
+        store.put("large.mp4", file);
+
+        assertFalse(Files.exists(file));
+        try (InputStream in = store.open("large.mp4")) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void listsBlobsInPages() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            store.put("list-" + i + ".png", write(randomBytes(16)));
+        }
+
+        List<StoredBlob> first = store.list("list-", 3);
+        List<StoredBlob> second = store.list(first.get(first.size() - 1).getKey(), 3);
+
+        assertEquals(List.of("list-0.png", "list-1.png", "list-2.png"), keys(first));
+        assertEquals(List.of("list-3.png", "list-4.png"), keys(second).subList(0, 2));
+        assertEquals(16, first.get(0).getSize());
+    }
+
+    @Test
+    void servesBlobsThroughPresignedUrls() throws Exception {
+        byte[] content = randomBytes(2048);
+        store.put("presigned.png", write(content));
+
+        String url = store.presignedUrl("presigned.png", Duration.ofMinutes(5));
+        HttpResponse<byte[]> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(content, response.body());
+        assertEquals("image/png", response.headers().firstValue("Content-Type").orElse(null));
+    }
+
+    @Test
+    void seesDeletesMadeByAnotherInstance() throws Exception {
+        store.put("shared.jpg", write(randomBytes(512)));
+        assertTrue(otherInstance.exists("shared.jpg"));
+
+        assertEquals(512, otherInstance.delete("shared.jpg"));
+
+        assertFalse(store.exists("shared.jpg"));
+        assertEquals(0, store.delete("shared.jpg"));
+        assertThrows(NoSuchFileException.class, () -> store.open("shared.jpg"));
+    }
+
+    private Path write(byte[] content) throws Exception {
+        return Files.write(Files.createTempFile(tempDir, "blob", null), content);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static List<String> keys(List<StoredBlob> blobs) {
+        return blobs.stream().map(StoredBlob::getKey).toList();
+    }
+
+    private static S3Client client() {
+        return S3Client.builder()
+                .endpointOverride(URI.create(MINIO.getS3URL()))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+    }
+
+    private static S3Presigner presigner() {
+        return S3Presigner.builder()
+                .endpointOverride(URI.create(MINIO.getS3URL()))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+    }
+
+    private static StaticCredentialsProvider credentials() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(MINIO.getUserName(), MINIO.getPassword()));
+    }
+}
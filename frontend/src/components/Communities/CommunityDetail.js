@@ -4,10 +4,16 @@ import axios from 'axios';
 import CommunityPost from './CommunityPost';
 import './CommunityDetail.css';
 
+const MEMBER_PAGE_SIZE = 50;
+
 function CommunityDetail() {
   const { communityId } = useParams();
   const [community, setCommunity] = useState(null);
   const [members, setMembers] = useState([]);
+  const [membersPage, setMembersPage] = useState(0);
+  const [hasMoreMembers, setHasMoreMembers] = useState(false);
+  const [loadingMoreMembers, setLoadingMoreMembers] = useState(false);
+  const [moderators, setModerators] = useState([]);
   const [posts, setPosts] = useState([]);
   const [activeTab, setActiveTab] = useState('posts');
   const [loading, setLoading] = useState(true);
@@ -27,7 +33,7 @@ function CommunityDetail() {
     
     setUserId(loggedInUserId);
     fetchCommunityDetails(communityId, loggedInUserId);
-    fetchCommunityPosts(communityId);
+    fetchCommunityPosts(communityId, loggedInUserId);
   }, [communityId, navigate]);
   
   const fetchCommunityDetails = async (id, currentUserId) => {
@@ -35,22 +41,23 @@ function CommunityDetail() {
       setLoading(true);
       
       // Get community details
-      const communityResponse = await axios.get(`http://localhost:8080/communities/${id}`);
+      const communityResponse = await axios.get(`http://localhost:8080/communities/${id}`, {
+        params: { userId: currentUserId }
+      });
       const communityData = communityResponse.data;
       setCommunity(communityData);
       
       // Check if user is a member
-      setIsMember(communityData.members.includes(currentUserId));
+      setIsMember(communityData.joinedByCurrentUser);
       
       // Check if user is a moderator
-      setIsModerator(communityData.moderators.includes(currentUserId));
+      setIsModerator(communityData.moderatedByCurrentUser);
       
       // Check if user is the creator
       setIsCreator(communityData.creatorId === currentUserId);
       
-      // Get community members
-      const membersResponse = await axios.get(`http://localhost:8080/communities/${id}/members`);
-      setMembers(membersResponse.data);
+      // Get the first page of members, and the moderators separately since they can be on any page
+      await Promise.all([fetchMembers(id, 0), fetchModerators(id)]);
       
       setLoading(false);
     } catch (err) {
@@ -60,9 +67,46 @@ function CommunityDetail() {
     }
   };
   
-  const fetchCommunityPosts = async (id) => {
+  // Members come in pages ordered by user id
+  const fetchMembers = async (id, page) => {
+    const response = await axios.get(`http://localhost:8080/communities/${id}/members`, {
+      params: { page, size: MEMBER_PAGE_SIZE }
+    });
+    setMembers(current => (page === 0 ? response.data : [...current, ...response.data]));
+    setMembersPage(page);
+    setHasMoreMembers(response.data.length === MEMBER_PAGE_SIZE);
+  };
+  
+  const fetchModerators = async (id) => {
+    const response = await axios.get(`http://localhost:8080/communities/${id}/moderators`);
+    setModerators(response.data);
+  };
+  
+  const loadMoreMembers = async () => {
+    try {
+      setLoadingMoreMembers(true);
+      await fetchMembers(communityId, membersPage + 1);
+    } catch (err) {
+      console.error('Error fetching community members:', err);
+      alert('Failed to load more members. Please try again.');
+    } finally {
+      setLoadingMoreMembers(false);
+    }
+  };
+  
+  // Update one member's role in the loaded pages and reload the moderators
+  const updateModerator = async (memberId, isModerator) => {
+    setMembers(current => current.map(member =>
+      member.id === memberId ? { ...member, isModerator } : member
+    ));
+    await fetchModerators(communityId);
+  };
+  
+  const fetchCommunityPosts = async (id, currentUserId) => {
     try {
-      const response = await axios.get(`http://localhost:8080/communities/${id}/posts`);
+      const response = await axios.get(`http://localhost:8080/communities/${id}/posts`, {
+        params: { userId: currentUserId }
+      });
       setPosts(response.data);
     } catch (err) {
       console.error('Error fetching community posts:', err);
@@ -291,7 +335,7 @@ function CommunityDetail() {
                     >
                       {member.profileImageUrl ? (
                         <img 
-                          src={`http://localhost:8080/uploads/profiles/${member.profileImageUrl}`} 
+                          src={`http://localhost:8080/uploads/profiles/${member.profileImageUrl}?w=160`} 
                           alt={member.fullname}
                           onError={(e) => {
                             e.target.onerror = null;
@@ -334,7 +378,7 @@ function CommunityDetail() {
                                 await axios.post(
                                   `http://localhost:8080/communities/${communityId}/moderators?adminUserId=${userId}&newModeratorId=${member.id}`
                                 );
-                                fetchCommunityDetails(communityId, userId);
+                                await updateModerator(member.id, true);
                               } catch (err) {
                                 console.error('Error making moderator:', err);
                                 setError('Failed to update moderator status.');
@@ -351,7 +395,7 @@ function CommunityDetail() {
                                 await axios.delete(
                                   `http://localhost:8080/communities/${communityId}/moderators/${member.id}?adminUserId=${userId}`
                                 );
-                                fetchCommunityDetails(communityId, userId);
+                                await updateModerator(member.id, false);
                               } catch (err) {
                                 console.error('Error removing moderator:', err);
                                 setError('Failed to update moderator status.');
@@ -366,6 +410,17 @@ function CommunityDetail() {
                   </div>
                 ))}
               </div>
+              {hasMoreMembers && (
+                <div className="load-more-container">
+                  <button
+                    className="load-more-btn"
+                    onClick={loadMoreMembers}
+                    disabled={loadingMoreMembers}
+                  >
+                    {loadingMoreMembers ? 'Loading...' : 'Load More'}
+                  </button>
+                </div>
+              )}
             </div>
           )}
           
@@ -399,8 +454,7 @@ function CommunityDetail() {
                 <div className="moderators-section">
                   <h3>Moderators</h3>
                   <div className="moderators-list">
-                    {members
-                      .filter(member => member.isModerator)
+                    {moderators
                       .map(moderator => (
                         <div 
                           key={moderator.id} 
@@ -410,7 +464,7 @@ function CommunityDetail() {
                           <div className="moderator-avatar">
                             {moderator.profileImageUrl ? (
                               <img 
-                                src={`http://localhost:8080/uploads/profiles/${moderator.profileImageUrl}`} 
+                                src={`http://localhost:8080/uploads/profiles/${moderator.profileImageUrl}?w=160`} 
                                 alt={moderator.fullname}
                                 onError={(e) => {
                                   e.target.onerror = null;
@@ -4,7 +4,7 @@ import axios from 'axios';
 import './CommunityPost.css';
 
 function CommunityPost({ post, currentUserId, isModerator, onPostDelete, onPostUpdate }) {
-  const [isLiked, setIsLiked] = useState(post.likes.includes(currentUserId));
+  const [isLiked, setIsLiked] = useState(post.likedByCurrentUser);
   const [likeCount, setLikeCount] = useState(post.likeCount);
   const [showOptions, setShowOptions] = useState(false);
   const [loading, setLoading] = useState(false);
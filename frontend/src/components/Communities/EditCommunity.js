@@ -30,11 +30,13 @@ function EditCommunity() {
       setLoading(true);
       
       // Get community details
-      const response = await axios.get(`http://localhost:8080/communities/${id}`);
+      const response = await axios.get(`http://localhost:8080/communities/${id}`, {
+        params: { userId }
+      });
       const communityData = response.data;
       
       // Check if user is a moderator
-      if (!communityData.moderators.includes(userId)) {
+      if (!communityData.moderatedByCurrentUser) {
         setError('You do not have permission to edit this community');
         setLoading(false);
         return;
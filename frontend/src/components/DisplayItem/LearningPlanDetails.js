@@ -43,12 +43,23 @@ function LearningPlanDetails() {
 
     const handleLike = async () => {
         try {
-            await axios.post(`http://localhost:8080/learning-plans/${planId}/like`);
+            const currentUserId = localStorage.getItem("userId");
+            
+            if (!currentUserId) {
+                alert("Please log in to like learning plans");
+                navigate("/login");
+                return;
+            }
+            
+            // Liking twice is a no-op, so take the count the server returns
+            const response = await axios.post(`http://localhost:8080/learning-plans/${planId}/like`, null, {
+                params: { userId: currentUserId }
+            });
             
             // Update the likes count in the UI
             setPlan(prevPlan => ({
                 ...prevPlan,
-                likes: prevPlan.likes + 1
+                likes: response.data.likes
             }));
         } catch (err) {
             console.error("Error liking learning plan:", err);
@@ -55,13 +55,24 @@ function LearningPlanList() {
 
     const handleLike = async (planId) => {
         try {
-            await axios.post(`http://localhost:8080/learning-plans/${planId}/like`);
+            const currentUserId = localStorage.getItem("userId");
+            
+            if (!currentUserId) {
+                alert("Please log in to like learning plans");
+                navigate("/login");
+                return;
+            }
+            
+            // Liking twice is a no-op, so take the count the server returns
+            const response = await axios.post(`http://localhost:8080/learning-plans/${planId}/like`, null, {
+                params: { userId: currentUserId }
+            });
             
             // Update the likes count in the UI
             setLearningPlans(prevPlans => 
                 prevPlans.map(plan => 
                     plan.planId === planId 
-                        ? { ...plan, likes: plan.likes + 1 } 
+                        ? { ...plan, likes: response.data.likes } 
                         : plan
                 )
             );
@@ -232,7 +232,10 @@ function LearningProgressList() {
                             {post.imageUrl && (
                                 <div className="post-image">
                                     <img 
-                                        src={`http://localhost:8080/uploads/posts/${post.imageUrl}`} 
+                                        src={`http://localhost:8080/uploads/posts/${post.imageUrl}?w=640`} 
+                                        width={post.imageWidth || undefined}
+                                        height={post.imageHeight || undefined}
+                                        loading="lazy"
                                         alt={post.title}
                                         onError={(e) => {
                                             e.target.onerror = null;
@@ -7,6 +7,8 @@ function PostList() {
     const [posts, setPosts] = useState([]);
     const [isLoading, setIsLoading] = useState(true);
     const [error, setError] = useState(null);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
     const [userId, setUserId] = useState("");
     const navigate = useNavigate();
 
@@ -17,15 +19,16 @@ function PostList() {
             setUserId(currentUserId);
         }
         
-        // Load all posts
+        // Load the first page of posts
         loadPosts();
     }, []);
 
     const loadPosts = async () => {
         setIsLoading(true);
         try {
-            const response = await axios.get("http://localhost:8080/posts");
-            setPosts(response.data);
+            const response = await axios.get("http://localhost:8080/posts/feed");
+            setPosts(response.data.posts);
+            setNextCursor(response.data.nextCursor);
         } catch (err) {
             console.error("Error loading posts:", err);
             setError("Failed to load posts. Please try again later.");
@@ -34,6 +37,23 @@ function PostList() {
         }
     };
 
+    const loadMorePosts = async () => {
+        if (!nextCursor) return;
+        setIsLoadingMore(true);
+        try {
+            const response = await axios.get("http://localhost:8080/posts/feed", {
+                params: { cursor: nextCursor }
+            });
+            setPosts(prevPosts => [...prevPosts, ...response.data.posts]);
+            setNextCursor(response.data.nextCursor);
+        } catch (err) {
+            console.error("Error loading more posts:", err);
+            alert("Failed to load more posts. Please try again.");
+        } finally {
+            setIsLoadingMore(false);
+        }
+    };
+
     const handleLike = async (postId) => {
         try {
             // Get current user info
@@ -155,7 +175,10 @@ function PostList() {
                             {post.imageUrl && (
                                 <div className="post-image">
                                     <img 
-                                        src={`http://localhost:8080/uploads/posts/${post.imageUrl}`} 
+                                        src={`http://localhost:8080/uploads/posts/${post.imageUrl}?w=640`} 
+                                        width={post.imageWidth || undefined}
+                                        height={post.imageHeight || undefined}
+                                        loading="lazy"
                                         alt={post.title}
                                         onError={(e) => {
                                             e.target.onerror = null;
@@ -196,7 +219,17 @@ function PostList() {
                 </div>
             )}
             
-            
+            {nextCursor && (
+                <div className="load-more-container">
+                    <button
+                        className="load-more-btn"
+                        onClick={loadMorePosts}
+                        disabled={isLoadingMore}
+                    >
+                        {isLoadingMore ? "Loading..." : "Load More"}
+                    </button>
+                </div>
+            )}
         </div>
     );
 }
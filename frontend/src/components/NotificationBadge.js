@@ -1,6 +1,5 @@
 import React, { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
-import axios from 'axios';
 import './NotificationBadge.css';
 
 function NotificationBadge() {
@@ -9,25 +8,27 @@ function NotificationBadge() {
 
   useEffect(() => {
     if (userId) {
-      fetchUnreadCount();
-      // Set up polling to check for new notifications
-      const interval = setInterval(fetchUnreadCount, 30000); // Check every 30 seconds
-      
-      return () => clearInterval(interval);
-    }
-  }, [userId]);
+      // One long-lived connection: the server sends the unread count when it
+      // connects and then pushes every change, so there is nothing to poll
+      const source = new EventSource(`http://localhost:8080/notifications/${userId}/stream`);
 
-  const fetchUnreadCount = async () => {
-    try {
-      // Use real API endpoint to get unread notification count
-      const response = await axios.get(`http://localhost:8080/notifications/${userId}/unread/count`);
-      setUnreadCount(response.data);
-    } catch (error) {
-      console.error('Error fetching unread count:', error);
-      // Fallback to 0 if there's an error
-      setUnreadCount(0);
+      source.addEventListener('unread-count', (event) => {
+        setUnreadCount(Number(event.data));
+      });
+      source.addEventListener('unread-count-delta', (event) => {
+        setUnreadCount(count => Math.max(0, count + Number(event.data)));
+      });
+      source.addEventListener('notification', () => {
+        setUnreadCount(count => count + 1);
+      });
+      source.onerror = (error) => {
+        // EventSource reconnects on its own and gets a fresh count when it does
+        console.error('Notification stream error:', error);
+      };
+
+      return () => source.close();
     }
-  };
+  }, [userId]);
 
   return (
     <Link to="/notifications" className="notification-badge-container">
@@ -2,8 +2,8 @@ import React, { useState, useEffect } from 'react';
 import axios from 'axios';
 import './FollowButton.css';
 
-function FollowButton({ targetUserId, initialIsFollowing = false, onFollowStatusChange }) {
-  const [isFollowing, setIsFollowing] = useState(initialIsFollowing);
+function FollowButton({ targetUserId, initialIsFollowing, onFollowStatusChange }) {
+  const [isFollowing, setIsFollowing] = useState(Boolean(initialIsFollowing));
   const [isLoading, setIsLoading] = useState(false);
   const [currentUserId, setCurrentUserId] = useState('');
 
@@ -13,7 +13,7 @@ function FollowButton({ targetUserId, initialIsFollowing = false, onFollowStatus
       setCurrentUserId(loggedInUserId);
       
       // If initialIsFollowing wasn't provided, check follow status
-      if (initialIsFollowing === false) {
+      if (initialIsFollowing === undefined) {
         checkFollowStatus(loggedInUserId, targetUserId);
       } else {
         setIsFollowing(initialIsFollowing);
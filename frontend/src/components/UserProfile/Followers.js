@@ -3,12 +3,17 @@ import axios from 'axios';
 import { useNavigate } from 'react-router-dom';
 import './Followers.css';
 
+const PAGE_SIZE = 50;
+
 function Followers({ userId, isCurrentUser }) {
   const [followers, setFollowers] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [currentUserId, setCurrentUserId] = useState('');
   const [followStatus, setFollowStatus] = useState({});
+  const [hasMore, setHasMore] = useState(false);
+  const [nextAfter, setNextAfter] = useState(0);
+  const [loadingMore, setLoadingMore] = useState(false);
   const navigate = useNavigate();
 
   useEffect(() => {
@@ -20,37 +25,56 @@ function Followers({ userId, isCurrentUser }) {
     fetchFollowers();
   }, [userId]);
 
-  const fetchFollowers = async () => {
+  // Followers come in pages ordered by id; the next page starts after the last id loaded
+  const fetchFollowers = async (after = 0) => {
     try {
-      setLoading(true);
-      const response = await axios.get(`http://localhost:8080/users/${userId}/followers`);
-      setFollowers(response.data);
+      if (after === 0) {
+        setLoading(true);
+      } else {
+        setLoadingMore(true);
+      }
+      const response = await axios.get(`http://localhost:8080/users/${userId}/followers`, {
+        params: { after, size: PAGE_SIZE }
+      });
+      const page = response.data;
+      setFollowers(current => (after === 0 ? page : [...current, ...page]));
+      setHasMore(page.length === PAGE_SIZE);
+      if (page.length > 0) {
+        setNextAfter(page[page.length - 1].id);
+      }
       
-      // Get follow status for each follower
-      if (response.data.length > 0) {
-        const statuses = {};
-        for (const follower of response.data) {
-          try {
-            const statusResponse = await axios.get(
-              `http://localhost:8080/users/${currentUserId}/isFollowing/${follower.id}`
-            );
-            statuses[follower.id] = statusResponse.data.isFollowing;
-          } catch (err) {
-            console.error(`Error checking follow status for user ${follower.id}:`, err);
-            statuses[follower.id] = false;
-          }
+      // Get follow status for the page's followers in one request
+      const loggedInUserId = localStorage.getItem('userId');
+      if (page.length > 0 && loggedInUserId) {
+        try {
+          const statusResponse = await axios.get(
+            `http://localhost:8080/users/${loggedInUserId}/isFollowing`,
+            { params: { targetIds: page.map(follower => follower.id).join(',') } }
+          );
+          setFollowStatus(current => ({ ...current, ...statusResponse.data.isFollowing }));
+        } catch (err) {
+          console.error('Error checking follow status:', err);
         }
-        setFollowStatus(statuses);
       }
       
       setLoading(false);
+      setLoadingMore(false);
     } catch (err) {
       console.error('Error fetching followers:', err);
-      setError('Failed to load followers. Please try again.');
+      if (after === 0) {
+        setError('Failed to load followers. Please try again.');
+      } else {
+        alert('Failed to load more followers. Please try again.');
+      }
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
+  const loadMore = () => {
+    fetchFollowers(nextAfter);
+  };
+
   const handleFollow = async (targetUserId) => {
     try {
       await axios.post(`http://localhost:8080/users/${currentUserId}/follow/${targetUserId}`);
@@ -98,7 +122,7 @@ function Followers({ userId, isCurrentUser }) {
     return (
       <div className="followers-error">
         <p>{error}</p>
-        <button onClick={fetchFollowers} className="retry-btn">Retry</button>
+        <button onClick={() => fetchFollowers()} className="retry-btn">Retry</button>
       </div>
     );
   }
@@ -121,7 +145,7 @@ function Followers({ userId, isCurrentUser }) {
               <div className="follower-avatar">
                 {follower.profileImageUrl ? (
                   <img 
-                    src={`http://localhost:8080/uploads/profiles/${follower.profileImageUrl}`} 
+                    src={`http://localhost:8080/uploads/profiles/${follower.profileImageUrl}?w=160`} 
                     alt={follower.fullname}
                     onError={(e) => {
                       e.target.onerror = null;
@@ -161,6 +185,13 @@ function Followers({ userId, isCurrentUser }) {
           </div>
         ))}
       </div>
+      {hasMore && (
+        <div className="load-more-container">
+          <button className="load-more-btn" onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load More'}
+          </button>
+        </div>
+      )}
     </div>
   );
 }
@@ -3,10 +3,15 @@ import axios from 'axios';
 import { useNavigate } from 'react-router-dom';
 import './Following.css';
 
+const PAGE_SIZE = 50;
+
 function Following({ userId, isCurrentUser }) {
   const [following, setFollowing] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
+  const [hasMore, setHasMore] = useState(false);
+  const [nextAfter, setNextAfter] = useState(0);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [currentUserId, setCurrentUserId] = useState('');
   const navigate = useNavigate();
 
@@ -19,19 +24,41 @@ function Following({ userId, isCurrentUser }) {
     fetchFollowing();
   }, [userId]);
 
-  const fetchFollowing = async () => {
+  // Followed users come in pages ordered by id; the next page starts after the last id loaded
+  const fetchFollowing = async (after = 0) => {
     try {
-      setLoading(true);
-      const response = await axios.get(`http://localhost:8080/users/${userId}/following`);
-      setFollowing(response.data);
+      if (after === 0) {
+        setLoading(true);
+      } else {
+        setLoadingMore(true);
+      }
+      const response = await axios.get(`http://localhost:8080/users/${userId}/following`, {
+        params: { after, size: PAGE_SIZE }
+      });
+      const page = response.data;
+      setFollowing(current => (after === 0 ? page : [...current, ...page]));
+      setHasMore(page.length === PAGE_SIZE);
+      if (page.length > 0) {
+        setNextAfter(page[page.length - 1].id);
+      }
       setLoading(false);
+      setLoadingMore(false);
     } catch (err) {
       console.error('Error fetching following:', err);
-      setError('Failed to load following. Please try again.');
+      if (after === 0) {
+        setError('Failed to load following. Please try again.');
+      } else {
+        alert('Failed to load more. Please try again.');
+      }
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
+  const loadMore = () => {
+    fetchFollowing(nextAfter);
+  };
+
   const handleUnfollow = async (targetUserId) => {
     try {
       await axios.delete(`http://localhost:8080/users/${currentUserId}/unfollow/${targetUserId}`);
@@ -61,7 +88,7 @@ function Following({ userId, isCurrentUser }) {
     return (
       <div className="following-error">
         <p>{error}</p>
-        <button onClick={fetchFollowing} className="retry-btn">Retry</button>
+        <button onClick={() => fetchFollowing()} className="retry-btn">Retry</button>
       </div>
     );
   }
@@ -84,7 +111,7 @@ function Following({ userId, isCurrentUser }) {
               <div className="following-avatar">
                 {followedUser.profileImageUrl ? (
                   <img 
-                    src={`http://localhost:8080/uploads/profiles/${followedUser.profileImageUrl}`} 
+                    src={`http://localhost:8080/uploads/profiles/${followedUser.profileImageUrl}?w=160`} 
                     alt={followedUser.fullname}
                     onError={(e) => {
                       e.target.onerror = null;
@@ -115,6 +142,13 @@ function Following({ userId, isCurrentUser }) {
           </div>
         ))}
       </div>
+      {hasMore && (
+        <div className="load-more-container">
+          <button className="load-more-btn" onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load More'}
+          </button>
+        </div>
+      )}
     </div>
   );
 }
@@ -27,8 +27,6 @@ function UserProfile() {
     const [isCurrentUser, setIsCurrentUser] = useState(false);
     const [isFollowing, setIsFollowing] = useState(false);
     const [userPosts, setUserPosts] = useState([]);
-    const [followers, setFollowers] = useState([]);
-    const [following, setFollowing] = useState([]);
     const [activeTab, setActiveTab] = useState("posts"); // posts, followers, following
     const [isEditing, setIsEditing] = useState(false);
     const [loading, setLoading] = useState(true);
@@ -98,24 +96,6 @@ function UserProfile() {
         }
     };
     
-    const fetchFollowers = async (userId) => {
-        try {
-            const response = await axios.get(`http://localhost:8080/users/${userId}/followers`);
-            setFollowers(response.data);
-        } catch (err) {
-            console.error("Error fetching followers:", err);
-        }
-    };
-    
-    const fetchFollowing = async (userId) => {
-        try {
-            const response = await axios.get(`http://localhost:8080/users/${userId}/following`);
-            setFollowing(response.data);
-        } catch (err) {
-            console.error("Error fetching following:", err);
-        }
-    };
-    
     const checkFollowStatus = async (currentUserId, targetUserId) => {
         try {
             const response = await axios.get(`http://localhost:8080/users/${currentUserId}/isFollowing/${targetUserId}`);
@@ -143,14 +123,9 @@ function UserProfile() {
         setIsEditing(!isEditing);
     };
     
+    // The followers and following tabs load their own lists, one page at a time
     const handleTabChange = (tab) => {
         setActiveTab(tab);
-        
-        if (tab === "followers" && followers.length === 0) {
-            fetchFollowers(user.id);
-        } else if (tab === "following" && following.length === 0) {
-            fetchFollowing(user.id);
-        }
     };
     
     const handleFollow = async () => {
@@ -389,7 +364,8 @@ function UserProfile() {
                     <div key={post.postId} className="post-item" onClick={() => navigate(`/view-post/${post.postId}`)}>
                         {post.imageUrl ? (
                             <img 
-                                src={`http://localhost:8080/uploads/posts/${post.imageUrl}`} 
+                                src={`http://localhost:8080/uploads/posts/${post.imageUrl}?w=640`} 
+                                loading="lazy"
                                 alt={post.title}
                                 onError={(e) => {
                                     e.target.onerror = null;
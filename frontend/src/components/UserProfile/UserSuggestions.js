@@ -82,7 +82,7 @@ function UserSuggestions({ limit = 5 }) {
               <div className="suggestion-avatar">
                 {user.profileImageUrl ? (
                   <img 
-                    src={`http://localhost:8080/uploads/profiles/${user.profileImageUrl}`} 
+                    src={`http://localhost:8080/uploads/profiles/${user.profileImageUrl}?w=160`} 
                     alt={user.fullname}
                     onError={(e) => {
                       e.target.onerror = null;
@@ -101,6 +101,7 @@ function UserSuggestions({ limit = 5 }) {
             </div>
             <FollowButton 
               targetUserId={user.id} 
+              initialIsFollowing={false}
               onFollowStatusChange={(isFollowing) => handleFollowStatusChange(user.id, isFollowing)}
             />
           </div>